@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.benchmark;
+
+import hudson.model.Run;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.AnyOfRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.GlobJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Throughput of matchers shared by many threads, which should scale with the number of threads since evaluation
+ * does not lock, also while the configuration is being changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConcurrentRunMatcherBenchmark {
+    private Run<?, ?> run;
+    private RegexJobFullNameRunMatcher regex;
+    private GlobJobFullNameRunMatcher glob;
+    private AnyOfRunMatcher anyOf;
+    private boolean odd;
+
+    @Setup
+    public void setup() {
+        run = Stubs.run("organization", "deploy-production");
+
+        regex = new RegexJobFullNameRunMatcher();
+        regex.setRegex(".*/?deploy-.*");
+
+        glob = new GlobJobFullNameRunMatcher();
+        glob.setGlob("**/deploy-*");
+
+        RegexJobFullNameRunMatcher other = new RegexJobFullNameRunMatcher();
+        other.setRegex("team-[0-9]+/.*");
+        anyOf = new AnyOfRunMatcher();
+        anyOf.setMatchers(Arrays.asList(other, regex, glob));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean regexOneThread() {
+        return regex.test(run);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean regexAllThreads() {
+        return regex.test(run);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean anyOfOneThread() {
+        return anyOf.test(run);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean anyOfAllThreads() {
+        return anyOf.test(run);
+    }
+
+    @Benchmark
+    @Group("reconfigure")
+    @GroupThreads(7)
+    public boolean evaluate() {
+        return regex.test(run) && glob.test(run);
+    }
+
+    @Benchmark
+    @Group("reconfigure")
+    @GroupThreads(1)
+    public void reconfigure() {
+        // both are compiled once and then shared through the caches
+        odd = !odd;
+        regex.setRegex(odd ? ".*deploy-.*" : ".*/?deploy-.*");
+        glob.setGlob(odd ? "*/deploy-*" : "**/deploy-*");
+    }
+}
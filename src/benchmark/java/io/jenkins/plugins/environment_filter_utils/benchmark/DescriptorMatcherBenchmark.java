@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.benchmark;
+
+import hudson.model.Descriptor;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.All;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.Multiple;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.Single;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DescriptorMatcherBenchmark {
+    /**
+     * Number of descriptor class names selected in {@link Multiple}.
+     */
+    @Param({"5", "400"})
+    public int descriptors;
+
+    private Descriptor<?> matching;
+    private Descriptor<?> other;
+    private All all;
+    private Single single;
+    private Multiple multiple;
+
+    @Setup
+    public void setup() {
+        matching = new Stubs.FirstDescriptor();
+        other = new Stubs.SecondDescriptor();
+
+        all = new All();
+        single = new Single(matching.getClass().getName());
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < descriptors - 1; i++) {
+            names.add("org.jenkinsci.plugins.example" + i + ".ExampleBuilder$DescriptorImpl");
+        }
+        names.add(matching.getClass().getName());
+        multiple = new Multiple(names);
+    }
+
+    @Benchmark
+    public boolean all() {
+        return all.test(matching);
+    }
+
+    @Benchmark
+    public boolean singleMatch() {
+        return single.test(matching);
+    }
+
+    @Benchmark
+    public boolean singleMiss() {
+        return single.test(other);
+    }
+
+    @Benchmark
+    public boolean multipleMatch() {
+        return multiple.test(matching);
+    }
+
+    @Benchmark
+    public boolean multipleMiss() {
+        return multiple.test(other);
+    }
+}
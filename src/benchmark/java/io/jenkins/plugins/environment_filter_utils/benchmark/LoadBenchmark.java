@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.benchmark;
+
+import hudson.util.XStream2;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.Multiple;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.Single;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Loading rule configuration from XML, as done when Jenkins starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LoadBenchmark {
+    @Param({"1000"})
+    public int rules;
+
+    private XStream2 xstream;
+    private String xml;
+
+    @Setup
+    public void setup() {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < rules; i++) {
+            RegexJobFullNameRunMatcher regex = new RegexJobFullNameRunMatcher();
+            regex.setRegex("team-" + i + "/.*");
+            list.add(Arrays.asList(
+                    regex,
+                    new Single(Stubs.FirstDescriptor.class.getName()),
+                    new Multiple(Arrays.asList(
+                            Stubs.FirstDescriptor.class.getName(), Stubs.SecondDescriptor.class.getName()))));
+        }
+        xstream = new XStream2();
+        xml = xstream.toXML(list);
+    }
+
+    @Benchmark
+    public Object load() {
+        return xstream.fromXML(xml);
+    }
+}
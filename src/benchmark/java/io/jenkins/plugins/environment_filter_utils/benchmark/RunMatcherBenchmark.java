@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.benchmark;
+
+import hudson.model.Run;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.ExactJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.GlobJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.MultiRegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RunMatcherBenchmark {
+    /**
+     * Number of folders the job is nested in.
+     */
+    @Param({"0", "5"})
+    public int depth;
+
+    /**
+     * Number of regular expression rules evaluated.
+     */
+    @Param({"10", "300"})
+    public int rules;
+
+    private Run<?, ?> run;
+    private ExactJobFullNameRunMatcher exact;
+    private RegexJobFullNameRunMatcher regex;
+    private GlobJobFullNameRunMatcher glob;
+    private List<RegexJobFullNameRunMatcher> regexList;
+    private MultiRegexJobFullNameRunMatcher multiRegex;
+
+    @Setup
+    public void setup() {
+        String[] path = new String[depth + 1];
+        for (int i = 0; i < depth; i++) {
+            path[i] = "organization-" + i;
+        }
+        path[depth] = "deploy-production";
+        run = Stubs.run(path);
+        String fullName = String.join("/", path);
+
+        exact = new ExactJobFullNameRunMatcher();
+        exact.setName(fullName);
+
+        regex = new RegexJobFullNameRunMatcher();
+        regex.setRegex(".*/?deploy-.*");
+
+        // about the same as the regular expression
+        glob = new GlobJobFullNameRunMatcher();
+        glob.setGlob("**/deploy-*");
+
+        // mostly rules that do not match, like folders of other teams
+        regexList = new ArrayList<>();
+        for (int i = 0; i < rules - 1; i++) {
+            RegexJobFullNameRunMatcher rule = new RegexJobFullNameRunMatcher();
+            rule.setRegex(i % 2 == 0 ? "team-" + i + "/.*" : "service-" + i + "-[a-z]+");
+            regexList.add(rule);
+        }
+        RegexJobFullNameRunMatcher last = new RegexJobFullNameRunMatcher();
+        last.setRegex(".*deploy-production");
+        regexList.add(last);
+
+        multiRegex = MultiRegexJobFullNameRunMatcher.of(regexList);
+    }
+
+    @Benchmark
+    public boolean exact() {
+        return exact.test(run);
+    }
+
+    @Benchmark
+    public boolean regex() {
+        return regex.test(run);
+    }
+
+    @Benchmark
+    public boolean glob() {
+        return glob.test(run);
+    }
+
+    @Benchmark
+    public boolean regexList() {
+        for (RegexJobFullNameRunMatcher matcher : regexList) {
+            if (matcher.test(run)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean multiRegex() {
+        return multiRegex.test(run);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.benchmark;
+
+import hudson.model.AbstractItem;
+import hudson.model.Descriptor;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Job;
+import hudson.model.Run;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RunMatcher;
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Minimal items, builds and descriptors that can be created without a running Jenkins.
+ */
+final class Stubs {
+    private Stubs() {}
+
+    /**
+     * Create a build of a job nested in folders.
+     *
+     * @param path folder names followed by the job name
+     */
+    static Run<?, ?> run(String... path) {
+        ItemGroup<?> parent = Root.INSTANCE;
+        for (int i = 0; i < path.length - 1; i++) {
+            parent = new Folder(parent, path[i]);
+        }
+        return new StubRun(new StubJob(parent, path[path.length - 1]));
+    }
+
+    static final class Root implements ItemGroup<Item> {
+        static final Root INSTANCE = new Root();
+
+        @Override
+        public String getFullName() {
+            return "";
+        }
+
+        @Override
+        public String getFullDisplayName() {
+            return "";
+        }
+
+        @Override
+        public Collection<Item> getItems() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getUrl() {
+            return "";
+        }
+
+        @Override
+        public String getUrlChildPrefix() {
+            return "job";
+        }
+
+        @Override
+        public Item getItem(String name) {
+            return null;
+        }
+
+        @Override
+        public File getRootDirFor(Item child) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onDeleted(Item item) {}
+
+        @Override
+        public File getRootDir() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void save() {}
+
+        @Override
+        public String getDisplayName() {
+            return "";
+        }
+    }
+
+    static final class Folder extends AbstractItem implements ItemGroup<Item> {
+        Folder(ItemGroup<?> parent, String name) {
+            super(parent, name);
+        }
+
+        @Override
+        public Collection<? extends Job> getAllJobs() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Collection<Item> getItems() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getUrlChildPrefix() {
+            return "job";
+        }
+
+        @Override
+        public Item getItem(String name) {
+            return null;
+        }
+
+        @Override
+        public File getRootDirFor(Item child) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onDeleted(Item item) {}
+
+        @Override
+        public void save() {}
+    }
+
+    static final class StubJob extends Job<StubJob, StubRun> {
+        StubJob(ItemGroup<?> parent, String name) {
+            super(parent, name);
+        }
+
+        @Override
+        public boolean isBuildable() {
+            return false;
+        }
+
+        @Override
+        protected SortedMap<Integer, ? extends StubRun> _getRuns() {
+            return new TreeMap<>();
+        }
+
+        @Override
+        protected void removeRun(StubRun run) {}
+
+        @Override
+        public void save() {}
+    }
+
+    static final class StubRun extends Run<StubJob, StubRun> {
+        StubRun(StubJob job) {
+            super(job, 0L);
+        }
+    }
+
+    static final class FirstDescriptor extends Descriptor<RunMatcher> {
+        FirstDescriptor() {
+            super(RunMatcher.class);
+        }
+    }
+
+    static final class SecondDescriptor extends Descriptor<RunMatcher> {
+        SecondDescriptor() {
+            super(RunMatcher.class);
+        }
+    }
+}
@@ -25,19 +25,41 @@ package io.jenkins.plugins.environment_filter_utils.matchers.descriptor;
 
 import hudson.Extension;
 import hudson.model.Descriptor;
+import io.jenkins.plugins.environment_filter_utils.util.Interner;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class All implements DescriptorMatcher {
+public class All extends MeasuredDescriptorMatcher {
+    private static final long serialVersionUID = 1L;
+
     @DataBoundConstructor
     public All() {
         // for Stapler
     }
 
+    private Object readResolve() {
+        return Interner.intern(this);
+    }
+
     @Override
-    public boolean test(Descriptor<?> descriptor) {
+    boolean matches(Descriptor<?> descriptor) {
         return true;
     }
 
+    @Override
+    public String toString() {
+        return "*";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj != null && obj.getClass() == getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
     @Extension
     public static class DescriptorImpl extends Descriptor<DescriptorMatcher> {
         @Override
@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.descriptor;
+
+import hudson.model.Descriptor;
+import io.jenkins.plugins.environment_filter_utils.util.BuilderUtil;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+
+/**
+ * The verdicts of one or more {@link DescriptorMatcher}s for all known builder descriptors, computed once.
+ * <p>
+ * Testing a descriptor that was known when the table was compiled is a single bit lookup. Descriptors that were not
+ * known, e.g. because they are not registered as extensions, are tested against the matchers themselves.
+ * <p>
+ * A table compiled from all the matchers of a chain of filter rules using {@link #anyOf(Collection)} tells whether any
+ * rule of the chain applies to a builder, so the entire chain can be skipped if none does.
+ */
+public final class DescriptorDecisionTable implements Predicate<Descriptor<?>> {
+    private final BuilderUtil.Ordinals ordinals;
+    private final BitSet verdicts;
+    private final List<DescriptorMatcher> matchers;
+
+    private DescriptorDecisionTable(List<DescriptorMatcher> matchers) {
+        this.ordinals = BuilderUtil.ordinals();
+        this.matchers = matchers;
+        this.verdicts = new BitSet(ordinals.size());
+        for (int i = 0; i < ordinals.size(); i++) {
+            if (evaluate(ordinals.get(i))) {
+                verdicts.set(i);
+            }
+        }
+    }
+
+    /**
+     * Compile the verdicts of a single matcher.
+     */
+    public static @Nonnull DescriptorDecisionTable compile(@Nonnull DescriptorMatcher matcher) {
+        return new DescriptorDecisionTable(Collections.singletonList(matcher));
+    }
+
+    /**
+     * Compile a table matching descriptors that any of the matchers match.
+     */
+    public static @Nonnull DescriptorDecisionTable anyOf(@Nonnull Collection<? extends DescriptorMatcher> matchers) {
+        return new DescriptorDecisionTable(Collections.unmodifiableList(new ArrayList<>(matchers)));
+    }
+
+    @Override
+    public boolean test(Descriptor<?> descriptor) {
+        int ordinal = ordinals.of(descriptor);
+        if (ordinal < 0) {
+            return evaluate(descriptor);
+        }
+        return verdicts.get(ordinal);
+    }
+
+    /**
+     * Whether no known descriptor is matched, i.e. whether the matchers only apply to unknown descriptors.
+     */
+    public boolean isEmpty() {
+        return verdicts.isEmpty();
+    }
+
+    private boolean evaluate(Descriptor<?> descriptor) {
+        for (DescriptorMatcher matcher : matchers) {
+            if (matcher.test(descriptor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
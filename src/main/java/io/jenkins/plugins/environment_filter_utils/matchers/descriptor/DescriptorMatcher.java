@@ -27,9 +27,9 @@ import hudson.ExtensionList;
 import hudson.ExtensionPoint;
 import hudson.model.Describable;
 import hudson.model.Descriptor;
+import io.jenkins.plugins.environment_filter_utils.util.DescriptorCache;
 import java.io.Serializable;
 import java.util.function.Predicate;
-import jenkins.model.Jenkins;
 
 public interface DescriptorMatcher
         extends Describable<DescriptorMatcher>, Serializable, ExtensionPoint, Predicate<Descriptor<?>> {
@@ -41,9 +41,16 @@ public interface DescriptorMatcher
         return ExtensionList.lookup(DescriptorMatcher.class);
     }
 
+    /**
+     * Precompute the verdicts of this matcher for all known builder descriptors.
+     * Callers should keep the result and use it instead of this matcher for repeated tests.
+     */
+    default DescriptorDecisionTable toDecisionTable() {
+        return DescriptorDecisionTable.compile(this);
+    }
+
     @Override
-    @SuppressWarnings("unchecked")
     default Descriptor<DescriptorMatcher> getDescriptor() {
-        return Jenkins.get().getDescriptorOrDie(getClass());
+        return DescriptorCache.get(getClass());
     }
 }
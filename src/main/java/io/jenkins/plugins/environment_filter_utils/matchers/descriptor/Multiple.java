@@ -25,29 +25,130 @@ package io.jenkins.plugins.environment_filter_utils.matchers.descriptor;
 
 import hudson.Extension;
 import hudson.model.Descriptor;
+import io.jenkins.plugins.environment_filter_utils.util.BuilderUtil;
+import io.jenkins.plugins.environment_filter_utils.util.Interner;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import jenkins.model.Jenkins;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class Multiple implements DescriptorMatcher {
+public class Multiple extends MeasuredDescriptorMatcher {
+    private static final long serialVersionUID = 1L;
+
     private final List<String> descriptorClassNames;
 
+    private transient volatile Set<String> classNames;
+
+    private transient volatile Resolved resolved;
+
     @DataBoundConstructor
     public Multiple(List<String> descriptorClassNames) {
-        this.descriptorClassNames = descriptorClassNames;
+        // class names are shared by many matchers
+        this.descriptorClassNames = Interner.internAll(descriptorClassNames);
+    }
+
+    private Object readResolve() {
+        return Interner.intern(new Multiple(descriptorClassNames));
+    }
+
+    /**
+     * The configured class names as a set, computed on first use.
+     */
+    private Set<String> classNames() {
+        Set<String> names = classNames;
+        if (names == null) {
+            names = Collections.unmodifiableSet(new HashSet<>(descriptorClassNames));
+            classNames = names;
+        }
+        return names;
     }
 
     @Override
-    public boolean test(Descriptor<?> descriptor) {
-        if (descriptor == null || descriptorClassNames == null) {
+    boolean matches(Descriptor<?> descriptor) {
+        return descriptor != null && descriptorClassNames != null && matches(descriptor.getClass());
+    }
+
+    private boolean matches(Class<?> clazz) {
+        Resolved r = resolve();
+        if (r.classes.contains(clazz)) {
+            return true;
+        }
+        if (r.complete) {
             return false;
         }
-        return descriptorClassNames.contains(descriptor.getClass().getName());
+        return classNames().contains(clazz.getName());
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(descriptorClassNames);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        Multiple other = (Multiple) obj;
+        return Objects.equals(descriptorClassNames, other.descriptorClassNames);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(descriptorClassNames);
+    }
+
+    /**
+     * Resolve the configured class names to the classes of the currently registered builder descriptors, on first
+     * evaluation rather than when loading. Names of descriptors that are not registered (yet) are still matched by
+     * name, and resolved again once the registered descriptors change, e.g. when their plugin has been loaded.
+     */
+    private Resolved resolve() {
+        Resolved r = resolved;
+        Object snapshot = null;
+        if (r == null || !r.complete) {
+            snapshot = Jenkins.getInstanceOrNull() == null ? null : BuilderUtil.ordinals();
+        }
+        if (r == null || (!r.complete && r.snapshot != snapshot)) {
+            Set<String> names = classNames();
+            Set<Class<?>> classes = new HashSet<>();
+            if (snapshot != null) {
+                for (String className : names) {
+                    Descriptor<?> d = BuilderUtil.getDescriptor(className);
+                    if (d != null) {
+                        classes.add(d.getClass());
+                    }
+                }
+            }
+            r = new Resolved(Collections.unmodifiableSet(classes), classes.size() == names.size(), snapshot);
+            resolved = r;
+        }
+        return r;
     }
 
     public List<String> getDescriptorClassNames() {
         return descriptorClassNames;
     }
 
+    private static final class Resolved {
+        private final Set<Class<?>> classes;
+        private final boolean complete;
+        // the registered descriptors the names were resolved against
+        private final Object snapshot;
+
+        Resolved(Set<Class<?>> classes, boolean complete, Object snapshot) {
+            this.classes = classes;
+            this.complete = complete;
+            this.snapshot = snapshot;
+        }
+    }
+
     @Extension
     public static class DescriptorImpl extends Descriptor<DescriptorMatcher> {
         @Override
@@ -24,15 +24,25 @@
 package io.jenkins.plugins.environment_filter_utils.matchers.descriptor;
 
 import hudson.Extension;
+import hudson.Util;
 import hudson.model.Descriptor;
+import io.jenkins.plugins.environment_filter_utils.util.Interner;
+import java.util.Objects;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class Single implements DescriptorMatcher {
+public class Single extends MeasuredDescriptorMatcher {
+    private static final long serialVersionUID = 1L;
+
     private final String descriptorClassName;
 
     @DataBoundConstructor
     public Single(String descriptorClassName) {
-        this.descriptorClassName = descriptorClassName;
+        // class names are shared by many matchers
+        this.descriptorClassName = Util.intern(descriptorClassName);
+    }
+
+    private Object readResolve() {
+        return Interner.intern(new Single(descriptorClassName));
     }
 
     public String getDescriptorClassName() {
@@ -40,11 +50,30 @@ public class Single implements DescriptorMatcher {
     }
 
     @Override
-    public boolean test(Descriptor<?> descriptor) {
-        if (descriptor == null || descriptorClassName == null) {
+    boolean matches(Descriptor<?> descriptor) {
+        return descriptor != null && descriptor.getClass().getName().equals(descriptorClassName);
+    }
+
+    @Override
+    public String toString() {
+        return descriptorClassName;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
             return false;
         }
-        return descriptor.getClass().getName().equals(descriptorClassName);
+        Single other = (Single) obj;
+        return Objects.equals(descriptorClassName, other.descriptorClassName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(descriptorClassName);
     }
 
     @Extension
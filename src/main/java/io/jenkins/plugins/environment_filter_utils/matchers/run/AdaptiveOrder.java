@@ -0,0 +1,200 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+
+/**
+ * Evaluates the children of {@link AnyOfRunMatcher} and {@link AllOfRunMatcher} with short-circuiting, in an order
+ * learned from the children's observed cost and how often they decide the result.
+ * <p>
+ * Some evaluations are sampled: all children are evaluated and timed. Periodically, children are sorted by their
+ * average cost divided by the probability that they decide the result, which minimizes the expected cost of
+ * evaluating independent conditions. Older samples are weighted down so the order follows changing workloads.
+ * Children are expected to be free of side effects, so the order does not change the result.
+ */
+final class AdaptiveOrder {
+    /**
+     * The first evaluations are all sampled, afterwards one in this many.
+     */
+    private static final int SAMPLE_INTERVAL = 64;
+
+    private static final int INITIAL_SAMPLES = 32;
+
+    private static final int SAMPLES_PER_REORDER = 32;
+
+    private final List<RunMatcher> children;
+
+    /**
+     * The result that ends the evaluation: {@code true} for {@link AnyOfRunMatcher}, {@code false} for
+     * {@link AllOfRunMatcher}.
+     */
+    private final boolean decisive;
+
+    private final AtomicLong evaluations = new AtomicLong();
+
+    private volatile int[] order;
+
+    // guarded by this, only updated by sampled evaluations
+    private final double[] nanos;
+    private final double[] decided;
+    private double samples;
+    private int samplesSinceReorder;
+
+    AdaptiveOrder(@Nonnull List<RunMatcher> children, boolean decisive) {
+        this.children = children;
+        this.decisive = decisive;
+        int size = children.size();
+        int[] initial = new int[size];
+        Arrays.setAll(initial, i -> i);
+        this.order = initial;
+        this.nanos = new double[size];
+        this.decided = new double[size];
+    }
+
+    /**
+     * Evaluate the children.
+     *
+     * @return {@link #decisive} if any child returned it, otherwise the opposite
+     * @throws MatchBudgetExceededException if no child returned {@link #decisive}, and a child exceeded its budget
+     */
+    boolean test(@Nonnull Run<?, ?> run) {
+        long count = evaluations.getAndIncrement();
+        if (count < INITIAL_SAMPLES || count % SAMPLE_INTERVAL == 0) {
+            return sample(run);
+        }
+        MatchBudgetExceededException exceeded = null;
+        for (int i : order) {
+            try {
+                if (children.get(i).test(run) == decisive) {
+                    return decisive;
+                }
+            } catch (MatchBudgetExceededException e) {
+                // another child may still decide the result
+                exceeded = e;
+            }
+        }
+        if (exceeded != null) {
+            throw exceeded;
+        }
+        return !decisive;
+    }
+
+    /**
+     * Evaluate the children for a job, see {@link RunMatcher#testJob(Job)}. The order is not adapted.
+     */
+    boolean testJob(@Nonnull Job<?, ?> job) {
+        MatchBudgetExceededException exceeded = null;
+        for (int i : order) {
+            try {
+                if (children.get(i).testJob(job) == decisive) {
+                    return decisive;
+                }
+            } catch (MatchBudgetExceededException e) {
+                exceeded = e;
+            }
+        }
+        if (exceeded != null) {
+            throw exceeded;
+        }
+        return !decisive;
+    }
+
+    /**
+     * The current evaluation order, as indices into the children.
+     */
+    int[] getOrder() {
+        return order.clone();
+    }
+
+    private boolean sample(Run<?, ?> run) {
+        int size = children.size();
+        long[] elapsed = new long[size];
+        boolean[] results = new boolean[size];
+        boolean result = !decisive;
+        MatchBudgetExceededException exceeded = null;
+        for (int i = 0; i < size; i++) {
+            long start = System.nanoTime();
+            try {
+                results[i] = children.get(i).test(run);
+            } catch (MatchBudgetExceededException e) {
+                // did not decide the result
+                results[i] = !decisive;
+                exceeded = e;
+            }
+            elapsed[i] = System.nanoTime() - start;
+            if (results[i] == decisive) {
+                result = decisive;
+            }
+        }
+        synchronized (this) {
+            for (int i = 0; i < size; i++) {
+                nanos[i] += elapsed[i];
+                if (results[i] == decisive) {
+                    decided[i]++;
+                }
+            }
+            samples++;
+            if (++samplesSinceReorder >= SAMPLES_PER_REORDER) {
+                reorder();
+                samplesSinceReorder = 0;
+            }
+        }
+        if (result != decisive && exceeded != null) {
+            throw exceeded;
+        }
+        return result;
+    }
+
+    private void reorder() {
+        int size = children.size();
+        double[] rank = new double[size];
+        for (int i = 0; i < size; i++) {
+            // smoothed, so children that never decided the result and children too fast to measure still get
+            // a finite, non-zero rank
+            double probability = (decided[i] + 1) / (samples + 2);
+            rank[i] = (nanos[i] / samples + 1) / probability;
+        }
+        Integer[] sorted = new Integer[size];
+        Arrays.setAll(sorted, i -> i);
+        // stable, so children of equal rank stay in configuration order
+        Arrays.sort(sorted, (a, b) -> Double.compare(rank[a], rank[b]));
+        int[] next = new int[size];
+        for (int i = 0; i < size; i++) {
+            next[i] = sorted[i];
+        }
+        order = next;
+
+        for (int i = 0; i < size; i++) {
+            nanos[i] /= 2;
+            decided[i] /= 2;
+        }
+        samples /= 2;
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import hudson.model.Run;
+import io.jenkins.plugins.environment_filter_utils.util.PatternCache;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+
+/**
+ * Evaluates a list of {@link RunMatcher}s together, see {@link RunMatcher#evaluateAll(Run, List)}.
+ * <p>
+ * Matchers comparing the full name with a fixed name are grouped into one hash map lookup, matchers using regular
+ * expressions into one {@link RegexPrefixIndex}, and all others are evaluated one by one. Plans are cached per list
+ * instance, and checked against the current configuration of the grouped matchers before each use.
+ */
+final class BatchPlan {
+    private static final int[] NONE = new int[0];
+
+    private static final int MAX_CACHED = 64;
+
+    private static final Map<ListKey, BatchPlan> PLANS = new LinkedHashMap<ListKey, BatchPlan>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ListKey, BatchPlan> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    /**
+     * The matchers, and the configuration the plan was built from, to detect changes.
+     */
+    private final RunMatcher[] matchers;
+
+    private final Object[] configuration;
+
+    private final Map<String, int[]> exact = new HashMap<>();
+
+    private final RegexPrefixIndex regexes;
+
+    /**
+     * The index of the matcher for each expression in {@link #regexes}.
+     */
+    private final int[] regexOwners;
+
+    private final int[] others;
+
+    @SuppressWarnings("unchecked")
+    private BatchPlan(List<? extends RunMatcher> list) {
+        int size = list.size();
+        this.matchers = list.toArray(new RunMatcher[0]);
+        this.configuration = new Object[size];
+        List<String> expressions = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        List<Integer> individual = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            RunMatcher matcher = matchers[i];
+            Object config = configuration(matcher);
+            configuration[i] = config;
+            if (matcher instanceof ExactJobFullNameRunMatcher && config != null) {
+                addExact((String) config, i);
+            } else if (matcher instanceof ExactJobFullNamesRunMatcher) {
+                for (String name : (List<String>) config) {
+                    addExact(name, i);
+                }
+            } else if (matcher instanceof RegexJobFullNameRunMatcher && config != null && isValid((String) config)) {
+                expressions.add((String) config);
+                owners.add(i);
+            } else if (matcher instanceof MultiRegexJobFullNameRunMatcher && isValid((List<String>) config)) {
+                for (String regex : (List<String>) config) {
+                    expressions.add(regex);
+                    owners.add(i);
+                }
+            } else {
+                individual.add(i);
+            }
+        }
+        this.regexes = new RegexPrefixIndex(expressions);
+        this.regexOwners = owners.stream().mapToInt(Integer::intValue).toArray();
+        this.others = individual.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * The part of the configuration of a matcher the plan depends on. This is replaced rather than modified when the
+     * configuration changes, so it can be compared by identity.
+     */
+    private static Object configuration(RunMatcher matcher) {
+        if (matcher instanceof ExactJobFullNameRunMatcher) {
+            return ((ExactJobFullNameRunMatcher) matcher).getName();
+        }
+        if (matcher instanceof ExactJobFullNamesRunMatcher) {
+            return ((ExactJobFullNamesRunMatcher) matcher).getNamesSnapshot();
+        }
+        if (matcher instanceof RegexJobFullNameRunMatcher) {
+            return ((RegexJobFullNameRunMatcher) matcher).getIndexableRegex();
+        }
+        if (matcher instanceof MultiRegexJobFullNameRunMatcher) {
+            return ((MultiRegexJobFullNameRunMatcher) matcher).getRegexesSnapshot();
+        }
+        return null;
+    }
+
+    private static boolean isValid(String regex) {
+        try {
+            PatternCache.compile(regex);
+            return true;
+        } catch (PatternSyntaxException e) {
+            // evaluated individually, so it fails the same way it always did
+            return false;
+        }
+    }
+
+    private static boolean isValid(List<String> regexes) {
+        for (String regex : regexes) {
+            if (!isValid(regex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addExact(String name, int index) {
+        int[] previous = exact.getOrDefault(name, NONE);
+        for (int i : previous) {
+            if (i == index) {
+                return;
+            }
+        }
+        int[] extended = Arrays.copyOf(previous, previous.length + 1);
+        extended[previous.length] = index;
+        exact.put(name, extended);
+    }
+
+    private boolean isCurrent(List<? extends RunMatcher> list) {
+        if (list.size() != matchers.length) {
+            return false;
+        }
+        for (int i = 0; i < matchers.length; i++) {
+            RunMatcher matcher = list.get(i);
+            // an equal but newly set configuration only costs building the plan again
+            if (matcher != matchers[i] || configuration(matcher) != configuration[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The newest configuration version of the matchers, see {@link ConfigurationVersion}.
+     */
+    long version() {
+        long version = 0;
+        for (RunMatcher matcher : matchers) {
+            version = Math.max(version, ConfigurationVersion.of(matcher));
+        }
+        return version;
+    }
+
+    static @Nonnull BatchPlan of(@Nonnull List<? extends RunMatcher> list) {
+        ListKey key = new ListKey(list);
+        BatchPlan plan;
+        synchronized (PLANS) {
+            plan = PLANS.get(key);
+        }
+        if (plan != null && plan.isCurrent(list)) {
+            return plan;
+        }
+        plan = new BatchPlan(list);
+        synchronized (PLANS) {
+            PLANS.put(key, plan);
+        }
+        return plan;
+    }
+
+    @Nonnull
+    BitSet evaluate(@Nonnull Run<?, ?> run) {
+        BitSet result = new BitSet(matchers.length);
+        if (!exact.isEmpty() || regexes.size() > 0) {
+            String fullName = run.getParent().getFullName();
+            for (int i : exact.getOrDefault(fullName, NONE)) {
+                result.set(i);
+            }
+            if (regexes.size() > 0) {
+                BitSet matching = regexes.matching(fullName);
+                for (int rule = matching.nextSetBit(0); rule >= 0; rule = matching.nextSetBit(rule + 1)) {
+                    result.set(regexOwners[rule]);
+                }
+            }
+        }
+        for (int i : others) {
+            try {
+                if (matchers[i].test(run)) {
+                    result.set(i);
+                }
+            } catch (MatchBudgetExceededException | PatternSyntaxException e) {
+                // fail closed, rather than failing the evaluation of all the other matchers
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Identifies a list by identity, without keeping it from being garbage collected.
+     */
+    private static final class ListKey {
+        private final WeakReference<List<?>> list;
+        private final int hash;
+
+        ListKey(List<?> list) {
+            this.list = new WeakReference<>(list);
+            this.hash = System.identityHashCode(list);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ListKey)) {
+                return false;
+            }
+            List<?> l = list.get();
+            return l != null && l == ((ListKey) obj).list.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
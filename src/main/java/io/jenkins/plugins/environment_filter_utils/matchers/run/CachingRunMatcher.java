@@ -0,0 +1,192 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import hudson.model.Descriptor;
+import hudson.model.Job;
+import hudson.model.Run;
+import io.jenkins.plugins.environment_filter_utils.util.JobFullName;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+
+/**
+ * Decorates a {@link RunMatcher} whose verdict only depends on the job of a build (like
+ * {@link ExactJobFullNameRunMatcher} and {@link RegexJobFullNameRunMatcher}) and remembers the verdict per job full
+ * name, so that repeated builds of the same job do not evaluate the decorated matcher again. Other matchers, whose
+ * verdict may depend on the build, are evaluated every time.
+ * <p>
+ * Remembered verdicts are discarded when the decorated matcher or a matcher nested in it is reconfigured, see
+ * {@link ConfigurationVersion}. As verdicts are looked up by full name, renamed and moved jobs are evaluated again
+ * under their new name.
+ * <p>
+ * This is not meant to be configured through the UI, {@link #getDescriptor()} is the one of the decorated matcher.
+ */
+public final class CachingRunMatcher implements RunMatcher {
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_SIZE =
+            SystemProperties.getInteger(CachingRunMatcher.class.getName() + ".maxSize", 10_000);
+
+    private static final ThreadLocal<NameLookup> LOOKUP = ThreadLocal.withInitial(NameLookup::new);
+
+    private final RunMatcher delegate;
+
+    private transient volatile Verdicts verdicts;
+
+    public CachingRunMatcher(@Nonnull RunMatcher delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Decorate the specified matcher, unless it is already decorated.
+     */
+    public static @Nonnull RunMatcher of(@Nonnull RunMatcher matcher) {
+        if (matcher instanceof CachingRunMatcher) {
+            return matcher;
+        }
+        return new CachingRunMatcher(matcher);
+    }
+
+    public @Nonnull RunMatcher getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean test(@Nonnull Run<?, ?> run) {
+        Verdicts current = verdicts();
+        return current == null ? delegate.test(run) : current.test(delegate, run.getParent());
+    }
+
+    @Override
+    public boolean testJob(@Nonnull Job<?, ?> job) {
+        Verdicts current = verdicts();
+        return current == null ? delegate.testJob(job) : current.test(delegate, job);
+    }
+
+    /**
+     * The remembered verdicts for the current configuration, or {@code null} if the verdict of the delegate may
+     * depend on more than the job.
+     */
+    private Verdicts verdicts() {
+        Verdicts current = verdicts;
+        long version = ConfigurationVersion.of(delegate);
+        if (current == null || current.version != version || current.map.size() >= MAX_SIZE) {
+            // replacing a nested matcher also changes the version, so this is only determined once per version
+            current = new Verdicts(version, dependsOnlyOnJob(delegate));
+            verdicts = current;
+        }
+        return current.cacheable ? current : null;
+    }
+
+    private static boolean dependsOnlyOnJob(RunMatcher matcher) {
+        if (matcher instanceof CompositeRunMatcher) {
+            return ((CompositeRunMatcher) matcher).getMatchers().stream().allMatch(CachingRunMatcher::dependsOnlyOnJob);
+        }
+        if (matcher instanceof NotRunMatcher) {
+            RunMatcher m = ((NotRunMatcher) matcher).getMatcher();
+            return m == null || dependsOnlyOnJob(m);
+        }
+        if (matcher instanceof CachingRunMatcher) {
+            return dependsOnlyOnJob(((CachingRunMatcher) matcher).delegate);
+        }
+        return matcher instanceof JobRunMatcher;
+    }
+
+    @Override
+    public boolean onLocationChanged(@Nonnull String oldFullName, @Nonnull String newFullName) {
+        return delegate.onLocationChanged(oldFullName, newFullName);
+    }
+
+    @Override
+    public Descriptor<RunMatcher> getDescriptor() {
+        return delegate.getDescriptor();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CachingRunMatcher && delegate.equals(((CachingRunMatcher) obj).delegate);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    private static final class Verdicts {
+        private final long version;
+        private final boolean cacheable;
+        // keyed by full name rather than job, so that jobs that are deleted or reloaded are not kept in memory
+        private final Map<Object, Boolean> map = new ConcurrentHashMap<>();
+
+        Verdicts(long version, boolean cacheable) {
+            this.version = version;
+            this.cacheable = cacheable;
+        }
+
+        boolean test(RunMatcher delegate, Job<?, ?> job) {
+            Boolean verdict = map.get(NameLookup.of(job));
+            if (verdict == null) {
+                verdict = delegate.testJob(job);
+                map.put(job.getFullName(), verdict);
+            }
+            return verdict;
+        }
+    }
+
+    /**
+     * Looks up a full name key without building the full name string, reused per thread.
+     * <p>
+     * {@link ConcurrentHashMap#get(Object)} calls {@code equals} on the argument, so this only needs to be equal to
+     * the {@link String} keys, not the other way around.
+     */
+    private static final class NameLookup {
+        private CharSequence name;
+        private int hash;
+
+        static NameLookup of(Job<?, ?> job) {
+            NameLookup lookup = LOOKUP.get();
+            CharSequence name = JobFullName.of(job);
+            int h = 0;
+            for (int i = 0, length = name.length(); i < length; i++) {
+                h = 31 * h + name.charAt(i);
+            }
+            lookup.name = name;
+            lookup.hash = h;
+            return lookup;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof String && ((String) obj).contentEquals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            // the same as String#hashCode
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import io.jenkins.plugins.environment_filter_utils.util.MatcherMetrics;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Base class for matchers combining several matchers, see {@link AnyOfRunMatcher} and {@link AllOfRunMatcher}.
+ * <p>
+ * The matchers are evaluated in an order learned at runtime, see {@link AdaptiveOrder}.
+ */
+@Restricted(NoExternalUse.class)
+public abstract class CompositeRunMatcher implements RunMatcher {
+    private static final long serialVersionUID = 1L;
+
+    // never modified once set, replaced as a whole together with the order
+    private volatile List<RunMatcher> matchers = new ArrayList<>();
+
+    private final transient boolean decisive;
+
+    private transient volatile AdaptiveOrder order;
+
+    // the newest version of this configuration, see ConfigurationVersion
+    private transient volatile long version;
+
+    /**
+     * @param decisive the verdict of a child that decides the verdict of this matcher, also the verdict when no
+     *                 child decides it
+     */
+    protected CompositeRunMatcher(boolean decisive) {
+        this.decisive = decisive;
+        this.order = new AdaptiveOrder(matchers, decisive);
+    }
+
+    @DataBoundSetter
+    public synchronized void setMatchers(List<RunMatcher> matchers) {
+        this.matchers = matchers == null ? new ArrayList<>() : new ArrayList<>(matchers);
+        this.order = new AdaptiveOrder(this.matchers, decisive);
+        configurationChanged();
+    }
+
+    protected Object readResolve() throws ObjectStreamException {
+        // deserialization does not run constructors, so take the transient state from a new instance
+        CompositeRunMatcher resolved;
+        try {
+            resolved = getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            InvalidObjectException failure = new InvalidObjectException("Cannot instantiate " + getClass().getName());
+            failure.initCause(e);
+            throw failure;
+        }
+        if (matchers != null) {
+            resolved.matchers = matchers;
+            resolved.order = new AdaptiveOrder(matchers, resolved.decisive);
+        }
+        return resolved;
+    }
+
+    public @Nonnull List<RunMatcher> getMatchers() {
+        return Collections.unmodifiableList(matchers);
+    }
+
+    /**
+     * The matchers without a wrapper. The list is never modified, but replaced when the configuration changes.
+     */
+    List<RunMatcher> matchers() {
+        return matchers;
+    }
+
+    /**
+     * Record a change of configuration, after publishing it.
+     */
+    final synchronized void configurationChanged() {
+        version = ConfigurationVersion.next();
+    }
+
+    final long version() {
+        return version;
+    }
+
+    @Override
+    public boolean test(@Nonnull Run<?, ?> run) {
+        long start = MatcherMetrics.start();
+        Boolean result = null;
+        try {
+            result = order.test(run);
+            return result;
+        } finally {
+            MatcherMetrics.record(this, start, result);
+        }
+    }
+
+    @Override
+    public boolean testJob(@Nonnull Job<?, ?> job) {
+        return order.testJob(job);
+    }
+
+    @Override
+    public boolean onLocationChanged(@Nonnull String oldFullName, @Nonnull String newFullName) {
+        boolean changed = false;
+        for (RunMatcher matcher : matchers) {
+            changed |= matcher.onLocationChanged(oldFullName, newFullName);
+        }
+        return changed;
+    }
+
+    @Override
+    public String toString() {
+        return matchers.stream().map(String::valueOf)
+                .collect(Collectors.joining(", ", decisive ? "anyOf(" : "allOf(", ")"));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        CompositeRunMatcher other = (CompositeRunMatcher) obj;
+        return Objects.equals(matchers, other.matchers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(matchers);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+
+/**
+ * Versions of the configuration of matchers, so that verdicts remembered for a matcher can be discarded when it or a
+ * matcher nested in it is reconfigured, without affecting any other matcher.
+ * <p>
+ * Each change of configuration draws a new version from a global sequence, while holding the lock of the changed
+ * matcher. The version of a tree of matchers is the newest version of any of its nodes, so it grows with every change
+ * anywhere in the tree.
+ */
+final class ConfigurationVersion {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private ConfigurationVersion() {}
+
+    /**
+     * A version newer than all versions returned before. Call after publishing the new configuration.
+     */
+    static long next() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * The version of the matcher and the matchers nested in it. Matchers not defined by this plugin have no version,
+     * so their reconfiguration is not noticed.
+     */
+    static long of(@Nonnull RunMatcher matcher) {
+        if (matcher instanceof JobRunMatcher) {
+            return ((JobRunMatcher) matcher).version();
+        }
+        if (matcher instanceof CompositeRunMatcher) {
+            CompositeRunMatcher composite = (CompositeRunMatcher) matcher;
+            long version = composite.version();
+            List<RunMatcher> children = composite.matchers();
+            for (int i = 0; i < children.size(); i++) {
+                version = Math.max(version, of(children.get(i)));
+            }
+            return version;
+        }
+        if (matcher instanceof NotRunMatcher) {
+            NotRunMatcher not = (NotRunMatcher) matcher;
+            RunMatcher child = not.getMatcher();
+            return child == null ? not.version() : Math.max(not.version(), of(child));
+        }
+        if (matcher instanceof CachingRunMatcher) {
+            return of(((CachingRunMatcher) matcher).getDelegate());
+        }
+        return 0;
+    }
+}
@@ -24,11 +24,15 @@
 package io.jenkins.plugins.environment_filter_utils.matchers.run;
 
 import hudson.Extension;
+import hudson.Util;
 import hudson.model.AutoCompletionCandidates;
 import hudson.model.Descriptor;
 import hudson.model.Item;
-import hudson.model.Run;
+import hudson.model.Job;
 import hudson.util.FormValidation;
+import io.jenkins.plugins.environment_filter_utils.util.JobFullName;
+import io.jenkins.plugins.environment_filter_utils.util.JobNameIndex;
+import java.util.Objects;
 import javax.annotation.Nonnull;
 import jenkins.model.Jenkins;
 import org.jenkinsci.Symbol;
@@ -40,8 +44,10 @@ import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.verb.POST;
 
 @Restricted(NoExternalUse.class)
-public class ExactJobFullNameRunMatcher implements RunMatcher {
-    private String name;
+public class ExactJobFullNameRunMatcher extends JobRunMatcher {
+    private static final long serialVersionUID = 1L;
+
+    private volatile String name;
 
     @DataBoundConstructor
     public ExactJobFullNameRunMatcher() {}
@@ -49,6 +55,7 @@ public class ExactJobFullNameRunMatcher implements RunMatcher {
     @DataBoundSetter
     public void setName(String name) {
         this.name = name;
+        configurationChanged();
     }
 
     // used by Jelly view
@@ -57,29 +64,87 @@ public class ExactJobFullNameRunMatcher implements RunMatcher {
     }
 
     @Override
-    public boolean test(@Nonnull Run<?, ?> run) {
-        String fullName = run.getParent().getFullName();
-        return name.equals(fullName);
+    public boolean testJob(@Nonnull Job<?, ?> job) {
+        return JobFullName.matches(job, name);
+    }
+
+    @Override
+    public synchronized boolean onLocationChanged(@Nonnull String oldFullName, @Nonnull String newFullName) {
+        if (!oldFullName.equals(name)) {
+            return false;
+        }
+        this.name = newFullName;
+        configurationChanged();
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        ExactJobFullNameRunMatcher other = (ExactJobFullNameRunMatcher) obj;
+        return Objects.equals(name, other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name);
     }
 
     @Extension
     @Symbol("jobName")
     public static final class DescriptorImpl extends Descriptor<RunMatcher> {
+        private static final int MAX_CANDIDATES = 20;
+
         @Override
         public @Nonnull String getDisplayName() {
             return Messages.ExactJobFullNameBuildMatcher_DisplayName();
         }
 
+        /**
+         * Checks that the job exists. The name is looked up in {@link JobNameIndex}, and only resolved to check that
+         * the current user can see it. For unknown names, a similar name in the same folder is suggested.
+         */
         @POST
         public FormValidation doCheckName(@QueryParameter String value) {
-            if (Jenkins.get().getItemByFullName(value) == null) {
+            Jenkins jenkins = Jenkins.get();
+            if (!JobNameIndex.isReady() || value == null) {
+                if (value == null || !JobNameIndex.isReadable(value)) {
+                    return FormValidation.warning(Messages.ExactJobFullNameBuildMatcher_Validation_NotFound(value));
+                }
+                return FormValidation.ok();
+            }
+            if (JobNameIndex.contains(value)
+                    // administrators can see every item anyway
+                    && (jenkins.hasPermission(Jenkins.ADMINISTER) || JobNameIndex.isReadable(value))) {
+                return FormValidation.ok();
+            }
+            String suggestion = JobNameIndex.findNearestReadable(value);
+            if (suggestion == null) {
                 return FormValidation.warning(Messages.ExactJobFullNameBuildMatcher_Validation_NotFound(value));
             }
-            return FormValidation.ok();
+            return FormValidation.warning(
+                    Messages.ExactJobFullNameBuildMatcher_Validation_NotFoundSuggestion(value, suggestion));
         }
 
         public AutoCompletionCandidates doAutoCompleteName(@QueryParameter String value) {
-            return AutoCompletionCandidates.ofJobNames(Item.class, value, Jenkins.get());
+            if (!JobNameIndex.isReady()) {
+                return AutoCompletionCandidates.ofJobNames(Item.class, value, Jenkins.get());
+            }
+            AutoCompletionCandidates candidates = new AutoCompletionCandidates();
+            for (String name : JobNameIndex.readableWithPrefix(Util.fixNull(value), MAX_CANDIDATES)) {
+                candidates.add(name);
+            }
+            return candidates;
         }
     }
 }
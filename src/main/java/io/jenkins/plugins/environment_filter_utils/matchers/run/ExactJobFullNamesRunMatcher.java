@@ -0,0 +1,258 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Descriptor;
+import hudson.model.Job;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.environment_filter_utils.util.Interner;
+import io.jenkins.plugins.environment_filter_utils.util.JobFullName;
+import io.jenkins.plugins.environment_filter_utils.util.JobNameIndex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Matches builds of any of several jobs, specified by their full names. This behaves like a list of
+ * {@link ExactJobFullNameRunMatcher}, but looks up the job name in a hash map.
+ * <p>
+ * Names of renamed or moved jobs are updated through {@link #onLocationChanged(String, String)}.
+ */
+@Restricted(NoExternalUse.class)
+public class ExactJobFullNamesRunMatcher extends JobRunMatcher {
+    private static final long serialVersionUID = 1L;
+
+    private static final Interner.Derived<List<String>, Map<String, String[]>> INDEXES = new Interner.Derived<>();
+
+    private volatile List<String> names = new ArrayList<>();
+
+    /**
+     * The full names by the last name segment, so the name of a job can be looked up without building its full name.
+     * Computed on first use.
+     */
+    private transient volatile Map<String, String[]> byName;
+
+    @DataBoundConstructor
+    public ExactJobFullNamesRunMatcher() {}
+
+    /**
+     * Set the full names of the jobs. Entries containing line breaks are split into one name per line, as submitted
+     * by the configuration form.
+     */
+    @DataBoundSetter
+    public void setNames(List<String> names) {
+        List<String> lines = new ArrayList<>();
+        if (names != null) {
+            for (String entry : names) {
+                if (entry == null) {
+                    continue;
+                }
+                for (String line : entry.split("\\R")) {
+                    String name = Util.fixEmptyAndTrim(line);
+                    if (name != null) {
+                        lines.add(name);
+                    }
+                }
+            }
+        }
+        publish(lines);
+    }
+
+    private Object readResolve() {
+        if (names == null) {
+            names = new ArrayList<>();
+        }
+        names = Interner.internAll(names);
+        return this;
+    }
+
+    private synchronized void publish(List<String> names) {
+        this.names = new ArrayList<>(new LinkedHashSet<>(names));
+        this.byName = INDEXES.get(this.names, ExactJobFullNamesRunMatcher::index);
+        configurationChanged();
+    }
+
+    private Map<String, String[]> byName() {
+        Map<String, String[]> map = byName;
+        if (map == null) {
+            synchronized (this) {
+                map = byName;
+                if (map == null) {
+                    map = INDEXES.get(names, ExactJobFullNamesRunMatcher::index);
+                    byName = map;
+                }
+            }
+        }
+        return map;
+    }
+
+    private static Map<String, String[]> index(List<String> names) {
+        Map<String, String[]> map = new HashMap<>();
+        for (String name : names) {
+            String last = name.substring(name.lastIndexOf('/') + 1);
+            String[] previous = map.get(last);
+            if (previous == null) {
+                map.put(last, new String[] {name});
+            } else {
+                String[] extended = Arrays.copyOf(previous, previous.length + 1);
+                extended[previous.length] = name;
+                map.put(last, extended);
+            }
+        }
+        return map;
+    }
+
+    private boolean contains(String fullName) {
+        String[] candidates = byName().get(fullName.substring(fullName.lastIndexOf('/') + 1));
+        return candidates != null && Arrays.asList(candidates).contains(fullName);
+    }
+
+    @Override
+    public synchronized boolean onLocationChanged(@Nonnull String oldFullName, @Nonnull String newFullName) {
+        // also called for every item inside a moved folder, so only exact names need to be replaced
+        if (!contains(oldFullName)) {
+            return false;
+        }
+        List<String> renamed = new ArrayList<>(names.size());
+        for (String name : names) {
+            renamed.add(name.equals(oldFullName) ? newFullName : name);
+        }
+        publish(renamed);
+        return true;
+    }
+
+    public @Nonnull List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * The names without a wrapper. The list is never modified, but replaced when the configuration changes, so it
+     * can be compared by identity.
+     */
+    List<String> getNamesSnapshot() {
+        return names;
+    }
+
+    // used by Jelly view
+    public String getNamesText() {
+        return String.join("\n", names);
+    }
+
+    @Override
+    public boolean testJob(@Nonnull Job<?, ?> job) {
+        String[] candidates = byName().get(job.getName());
+        if (candidates != null) {
+            for (String candidate : candidates) {
+                if (JobFullName.matches(job, candidate)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(", ", names);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        ExactJobFullNamesRunMatcher other = (ExactJobFullNamesRunMatcher) obj;
+        return Objects.equals(names, other.names);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(names);
+    }
+
+    @Extension
+    @Symbol("jobNames")
+    public static final class DescriptorImpl extends Descriptor<RunMatcher> {
+        @Override
+        public @Nonnull String getDisplayName() {
+            return Messages.ExactJobFullNamesBuildMatcher_DisplayName();
+        }
+
+        /**
+         * Checks that all the jobs exist. Names are looked up in {@link JobNameIndex}, only names found there are
+         * resolved to check that the current user can see them.
+         */
+        @POST
+        public FormValidation doCheckNames(@QueryParameter String value) {
+            if (value == null) {
+                return FormValidation.ok();
+            }
+            Jenkins jenkins = Jenkins.get();
+            boolean indexed = JobNameIndex.isReady();
+            // administrators can see every item anyway
+            boolean trusted = indexed && jenkins.hasPermission(Jenkins.ADMINISTER);
+            Set<String> notFound = new LinkedHashSet<>();
+            for (String line : value.split("\\R")) {
+                String name = Util.fixEmptyAndTrim(line);
+                if (name == null) {
+                    continue;
+                }
+                boolean exists;
+                if (indexed && !JobNameIndex.names().contains(name)) {
+                    exists = false;
+                } else {
+                    exists = trusted || JobNameIndex.isReadable(name);
+                }
+                if (!exists) {
+                    notFound.add(name);
+                }
+            }
+            if (notFound.isEmpty()) {
+                return FormValidation.ok();
+            }
+            return FormValidation.warning(
+                    Messages.ExactJobFullNamesBuildMatcher_Validation_NotFound(String.join(", ", notFound)));
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.AutoCompletionCandidates;
+import hudson.model.Descriptor;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Job;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.environment_filter_utils.util.Interner;
+import io.jenkins.plugins.environment_filter_utils.util.JobNameIndex;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Matches builds of jobs inside any of several folders, including their subfolders.
+ * <p>
+ * The folders are kept in a trie of name segments, and a build is matched by walking the parents of its job once,
+ * so the cost depends on the folder depth of the job, not on the number of folders.
+ */
+@Restricted(NoExternalUse.class)
+public class FolderRunMatcher extends JobRunMatcher {
+    private static final long serialVersionUID = 1L;
+
+    private static final Interner.Derived<List<String>, Node> ROOTS = new Interner.Derived<>();
+
+    // never modified once set, replaced as a whole together with the tree
+    private volatile List<String> folders = new ArrayList<>();
+
+    // built on first use after deserialization
+    private transient volatile Node root;
+
+    @DataBoundConstructor
+    public FolderRunMatcher() {}
+
+    /**
+     * Set the full names of the folders. Entries are split on semicolons and line breaks, as submitted by the
+     * configuration form.
+     */
+    @DataBoundSetter
+    public synchronized void setFolders(List<String> folders) {
+        List<String> names = new ArrayList<>();
+        if (folders != null) {
+            for (String entry : folders) {
+                if (entry == null) {
+                    continue;
+                }
+                for (String token : entry.split("[;\\r\\n]")) {
+                    String name = normalize(token);
+                    if (name != null) {
+                        names.add(name);
+                    }
+                }
+            }
+        }
+        this.folders = names;
+        this.root = ROOTS.get(names, Node::of);
+        configurationChanged();
+    }
+
+    private Object readResolve() {
+        if (folders == null) {
+            folders = new ArrayList<>();
+        }
+        folders = Interner.internAll(folders);
+        return this;
+    }
+
+    private Node root() {
+        Node r = root;
+        if (r == null) {
+            synchronized (this) {
+                r = root;
+                if (r == null) {
+                    r = ROOTS.get(folders, Node::of);
+                    root = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    private static String normalize(String name) {
+        String v = Util.fixEmptyAndTrim(name);
+        if (v == null) {
+            return null;
+        }
+        int start = 0;
+        int end = v.length();
+        while (start < end && v.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && v.charAt(end - 1) == '/') {
+            end--;
+        }
+        return start == end ? null : v.substring(start, end);
+    }
+
+    public @Nonnull List<String> getFolders() {
+        return Collections.unmodifiableList(folders);
+    }
+
+    // used by Jelly view
+    public String getFoldersText() {
+        return String.join(";", folders);
+    }
+
+    @Override
+    public boolean testJob(@Nonnull Job<?, ?> job) {
+        return walk(job.getParent()) == Node.MATCHED;
+    }
+
+    @Override
+    public synchronized boolean onLocationChanged(@Nonnull String oldFullName, @Nonnull String newFullName) {
+        // also called for every folder inside a moved folder, so only exact names need to be replaced
+        if (!folders.contains(oldFullName)) {
+            return false;
+        }
+        List<String> renamed = new ArrayList<>(folders.size());
+        for (String folder : folders) {
+            renamed.add(folder.equals(oldFullName) ? newFullName : folder);
+        }
+        setFolders(renamed);
+        return true;
+    }
+
+    /**
+     * Find the trie node for the specified group.
+     *
+     * @return {@link Node#MATCHED} if the group is or is inside a listed folder, {@code null} if no listed folder can
+     *     contain the group
+     */
+    private Node walk(ItemGroup<?> group) {
+        if (group instanceof Item) {
+            Node node = walk(((Item) group).getParent());
+            if (node == null || node == Node.MATCHED) {
+                return node;
+            }
+            return node.child(((Item) group).getName());
+        }
+        // Jenkins itself, or an unusual group that is not an item, use its full name
+        Node node = root();
+        String fullName = group.getFullName();
+        int from = 0;
+        while (node != null && node != Node.MATCHED && from < fullName.length()) {
+            int to = fullName.indexOf('/', from);
+            if (to < 0) {
+                to = fullName.length();
+            }
+            node = node.child(fullName.substring(from, to));
+            from = to + 1;
+        }
+        return node;
+    }
+
+    @Override
+    public String toString() {
+        return getFoldersText();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        FolderRunMatcher other = (FolderRunMatcher) obj;
+        return Objects.equals(folders, other.folders);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(folders);
+    }
+
+    private static final class Node {
+        /**
+         * The node of a listed folder. Everything below is matched, so its children are never needed.
+         */
+        static final Node MATCHED = new Node();
+
+        private final Map<String, Node> children = new HashMap<>();
+
+        static Node of(List<String> folders) {
+            Node root = new Node();
+            for (String folder : folders) {
+                root.add(folder.split("/"), 0);
+            }
+            return root;
+        }
+
+        private void add(String[] segments, int index) {
+            String segment = segments[index];
+            if (index == segments.length - 1) {
+                children.put(segment, MATCHED);
+                return;
+            }
+            Node child = children.get(segment);
+            if (child == MATCHED) {
+                // a parent folder is already listed
+                return;
+            }
+            if (child == null) {
+                child = new Node();
+                children.put(segment, child);
+            }
+            child.add(segments, index + 1);
+        }
+
+        Node child(String segment) {
+            return children.get(segment);
+        }
+    }
+
+    @Extension
+    @Symbol("folders")
+    public static final class DescriptorImpl extends Descriptor<RunMatcher> {
+        @Override
+        public @Nonnull String getDisplayName() {
+            return Messages.FolderBuildMatcher_DisplayName();
+        }
+
+        @POST
+        public FormValidation doCheckFolders(@QueryParameter String value) {
+            if (value == null) {
+                return FormValidation.ok();
+            }
+            for (String token : value.split("[;\\r\\n]")) {
+                String name = normalize(token);
+                if (name != null && !(JobNameIndex.getReadable(name) instanceof ItemGroup)) {
+                    return FormValidation.warning(Messages.FolderBuildMatcher_Validation_NotFound(name));
+                }
+            }
+            return FormValidation.ok();
+        }
+
+        public AutoCompletionCandidates doAutoCompleteFolders(@QueryParameter String value) {
+            // only the entry after the last delimiter is being completed
+            String prefix = value == null ? "" : value.substring(value.lastIndexOf(';') + 1).trim();
+            AutoCompletionCandidates candidates = new AutoCompletionCandidates();
+            for (String name : AutoCompletionCandidates.ofJobNames(Item.class, prefix, Jenkins.get()).getValues()) {
+                if (JobNameIndex.getReadable(name) instanceof ItemGroup) {
+                    candidates.add(name);
+                }
+            }
+            return candidates;
+        }
+    }
+}
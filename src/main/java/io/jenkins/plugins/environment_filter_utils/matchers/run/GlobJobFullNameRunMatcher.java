@@ -0,0 +1,195 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Descriptor;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.environment_filter_utils.util.Interner;
+import io.jenkins.plugins.environment_filter_utils.util.JobFullName;
+import io.jenkins.plugins.environment_filter_utils.util.JobNameGlob;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.AncestorInPath;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Matches builds of jobs whose full name matches an Ant-style glob like {@code team-*}{@code /deploy-*}, see
+ * {@link JobNameGlob}. This covers most uses of {@link RegexJobFullNameRunMatcher} at a fraction of the cost.
+ */
+@Restricted(NoExternalUse.class)
+public class GlobJobFullNameRunMatcher extends JobRunMatcher {
+    private static final long serialVersionUID = 1L;
+
+    private static final Interner.Derived<String, JobNameGlob> GLOBS = new Interner.Derived<>();
+
+    private volatile String glob;
+
+    // compiled on first use after deserialization
+    private transient volatile JobNameGlob compiled;
+
+    @DataBoundConstructor
+    public GlobJobFullNameRunMatcher() {}
+
+    @DataBoundSetter
+    public synchronized void setGlob(String glob) {
+        this.glob = Util.fixEmptyAndTrim(glob);
+        this.compiled = null;
+        configurationChanged();
+    }
+
+    private Object readResolve() {
+        this.glob = Util.intern(glob);
+        return this;
+    }
+
+    // used by Jelly view
+    public String getGlob() {
+        return glob;
+    }
+
+    @Override
+    public boolean testJob(@Nonnull Job<?, ?> job) {
+        JobNameGlob g = compiled();
+        return g != null && g.matches(JobFullName.of(job));
+    }
+
+    private JobNameGlob compiled() {
+        JobNameGlob g = compiled;
+        if (g == null) {
+            synchronized (this) {
+                g = compiled;
+                if (g == null && glob != null) {
+                    // throws for an invalid glob, like an invalid regular expression does
+                    g = GLOBS.get(glob, JobNameGlob::compile);
+                    compiled = g;
+                }
+            }
+        }
+        return g;
+    }
+
+    @Override
+    public String toString() {
+        return glob;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        return Objects.equals(glob, ((GlobJobFullNameRunMatcher) obj).glob);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(glob);
+    }
+
+    @Extension
+    @Symbol("jobNameGlob")
+    public static final class DescriptorImpl extends Descriptor<RunMatcher> {
+        @Override
+        public @Nonnull String getDisplayName() {
+            return Messages.GlobJobFullNameBuildMatcher_DisplayName();
+        }
+
+        // used by Jelly view
+        @POST
+        public FormValidation doCheckGlob(@QueryParameter String value) {
+            String v = Util.fixEmptyAndTrim(value);
+            if (v != null) {
+                try {
+                    JobNameGlob.compile(v);
+                } catch (IllegalArgumentException e) {
+                    return FormValidation.error(Messages.GlobJobFullNameBuildMatcher_Validation_Invalid());
+                }
+            }
+            return FormValidation.ok();
+        }
+
+        @RequirePOST
+        public FormValidation doTestGlob(@QueryParameter String glob, @AncestorInPath Item context) {
+            if (context == null) {
+                if (!Jenkins.get().hasPermission(Jenkins.ADMINISTER)) {
+                    return FormValidation.ok();
+                }
+            } else {
+                if (!context.hasPermission(Item.CONFIGURE)) {
+                    return FormValidation.ok();
+                }
+            }
+
+            String v = Util.fixEmptyAndTrim(glob);
+            final JobNameGlob compiled;
+            try {
+                compiled = JobNameGlob.compile(Util.fixNull(v));
+            } catch (IllegalArgumentException e) {
+                return FormValidation.error(Messages.GlobJobFullNameBuildMatcher_Validation_Invalid());
+            }
+
+            ItemSearch search = ItemSearch.search(compiled::matches);
+            List<String> matchingJobNames = search.getMatches();
+
+            if (matchingJobNames.isEmpty()) {
+                if (search.isTruncated()) {
+                    return FormValidation.warning(
+                            Messages.GlobJobFullNameBuildMatcher_Validation_NoJobSearched(search.getVisited()));
+                }
+                return FormValidation.warning(Messages.GlobJobFullNameBuildMatcher_Validation_NoJob());
+            }
+
+            String entries = matchingJobNames.stream()
+                    .map(it -> Messages.RegexJobFullNameBuildMatcher_Validation_FoundEntry(Util.xmlEscape(it)))
+                    .collect(Collectors.joining());
+            if (search.hasMore()) {
+                return FormValidation.okWithMarkup(
+                        Messages.GlobJobFullNameBuildMatcher_Validation_FoundMore(Util.xmlEscape(v), entries));
+            }
+            if (search.isTruncated()) {
+                return FormValidation.okWithMarkup(Messages.GlobJobFullNameBuildMatcher_Validation_FoundSearched(
+                        Util.xmlEscape(v), entries, search.getVisited()));
+            }
+            return FormValidation.okWithMarkup(
+                    Messages.GlobJobFullNameBuildMatcher_Validation_Found(Util.xmlEscape(v), entries));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import io.jenkins.plugins.environment_filter_utils.util.ItemTraversal;
+import io.jenkins.plugins.environment_filter_utils.util.JobNameIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * Finds a sample of the items whose full name satisfies a predicate, for previews in the configuration form.
+ * <p>
+ * The search stops after {@link #MAX_RESULTS} matches, and gives up when it has looked at too many items or taken too
+ * long, so that previews remain responsive on large instances. It also gives up when the predicate throws
+ * {@link MatchBudgetExceededException}, as evaluating it for the remaining items would likely take as long.
+ */
+final class ItemSearch {
+    static final int MAX_RESULTS = 10;
+
+    private static final int MAX_VISITED =
+            SystemProperties.getInteger(ItemSearch.class.getName() + ".maxVisited", 100_000);
+
+    private static final long TIMEOUT_MILLIS =
+            SystemProperties.getLong(ItemSearch.class.getName() + ".timeoutMillis", 5_000L);
+
+    private final Predicate<String> predicate;
+    private final long deadline;
+
+    private final List<String> matches = new ArrayList<>();
+    private boolean more;
+    private boolean truncated;
+    private volatile boolean budgetExceeded;
+    private int visited;
+
+    private ItemSearch(Predicate<String> predicate) {
+        this.predicate = predicate;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Search the items the current user can read. Without the {@link JobNameIndex}, items are searched in parallel
+     * using {@link ItemTraversal}, so the predicate must be thread-safe.
+     *
+     * @param predicate applied to the full name of items
+     */
+    static ItemSearch search(Predicate<String> predicate) {
+        ItemSearch search = new ItemSearch(predicate);
+        if (JobNameIndex.isReady()) {
+            search.searchIndex();
+        } else {
+            search.searchItems();
+        }
+        return search;
+    }
+
+    private void searchIndex() {
+        for (String fullName : JobNameIndex.names()) {
+            if (exhausted()) {
+                return;
+            }
+            // only resolve matching names to check the permission to read them
+            if (test(fullName) && JobNameIndex.isReadable(fullName) && !add(fullName)) {
+                return;
+            }
+            if (budgetExceeded) {
+                return;
+            }
+        }
+    }
+
+    private void searchItems() {
+        // the predicate is evaluated concurrently, only the bookkeeping is synchronized
+        ItemTraversal.forEach(Jenkins.get(), Jenkins.getAuthentication2(), item -> {
+            synchronized (this) {
+                if (exhausted()) {
+                    return false;
+                }
+            }
+            String fullName = item.getFullName();
+            if (!test(fullName)) {
+                return !budgetExceeded;
+            }
+            synchronized (this) {
+                return add(fullName);
+            }
+        });
+    }
+
+    private boolean test(String fullName) {
+        try {
+            return predicate.test(fullName);
+        } catch (MatchBudgetExceededException e) {
+            budgetExceeded = true;
+            return false;
+        }
+    }
+
+    private boolean exhausted() {
+        if (visited >= MAX_VISITED || (visited % 256 == 255 && System.nanoTime() - deadline > 0)) {
+            truncated = true;
+            return true;
+        }
+        visited++;
+        return false;
+    }
+
+    private boolean add(String fullName) {
+        if (matches.size() == MAX_RESULTS) {
+            more = true;
+            return false;
+        }
+        matches.add(fullName);
+        return true;
+    }
+
+    /**
+     * Full names of the matching items, at most {@link #MAX_RESULTS}.
+     */
+    List<String> getMatches() {
+        return matches;
+    }
+
+    /**
+     * Whether there are more matches than returned.
+     */
+    boolean hasMore() {
+        return more;
+    }
+
+    /**
+     * Whether the search gave up before looking at all items.
+     */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Whether the search gave up because evaluating the predicate exceeded its work budget.
+     */
+    boolean isBudgetExceeded() {
+        return budgetExceeded;
+    }
+
+    int getVisited() {
+        return visited;
+    }
+}
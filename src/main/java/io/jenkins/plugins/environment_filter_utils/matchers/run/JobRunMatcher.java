@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import io.jenkins.plugins.environment_filter_utils.util.MatcherMetrics;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Base class for matchers whose verdict only depends on the job of a build. Subclasses implement
+ * {@link #testJob(Job)}, evaluations of builds are recorded by {@link MatcherMetrics}.
+ */
+@Restricted(NoExternalUse.class)
+public abstract class JobRunMatcher implements RunMatcher {
+    private static final long serialVersionUID = 1L;
+
+    // the newest version of this configuration, see ConfigurationVersion
+    private transient volatile long version;
+
+    @Override
+    public final boolean test(@Nonnull Run<?, ?> run) {
+        long start = MatcherMetrics.start();
+        Boolean result = null;
+        try {
+            result = testJob(run.getParent());
+            return result;
+        } finally {
+            // also counts evaluations exceeding their budget
+            MatcherMetrics.record(this, start, result);
+        }
+    }
+
+    @Override
+    public abstract boolean testJob(@Nonnull Job<?, ?> job);
+
+    /**
+     * Record a change of configuration, after publishing it.
+     */
+    final synchronized void configurationChanged() {
+        version = ConfigurationVersion.next();
+    }
+
+    final long version() {
+        return version;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+/**
+ * Thrown when evaluating a matcher was aborted because it exceeded its work budget, like a regular expression with
+ * catastrophic backtracking. This is neither a match nor a mismatch.
+ * <p>
+ * Matchers combining others do not turn it into a verdict: {@link NotRunMatcher} passes it on, and
+ * {@link AnyOfRunMatcher} and {@link AllOfRunMatcher} only pass it on when no other child decides the result.
+ * Callers should fail closed and treat the build as matching, so that a filter rule is applied rather than skipped.
+ * {@link RunMatcher#evaluateAll} does that for them.
+ */
+public class MatchBudgetExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public MatchBudgetExceededException(String message) {
+        super(message);
+    }
+}
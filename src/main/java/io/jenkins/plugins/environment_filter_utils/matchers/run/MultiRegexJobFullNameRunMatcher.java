@@ -0,0 +1,225 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Descriptor;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.environment_filter_utils.util.Interner;
+import io.jenkins.plugins.environment_filter_utils.util.JobFullName;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Matches builds of jobs whose full name matches any of several regular expressions. This behaves like a list of
+ * {@link RegexJobFullNameRunMatcher}, but evaluates all expressions in a single walk over the full name.
+ */
+@Restricted(NoExternalUse.class)
+public class MultiRegexJobFullNameRunMatcher extends JobRunMatcher {
+    private static final long serialVersionUID = 1L;
+
+    private static final Interner.Derived<List<String>, RegexPrefixIndex> INDEXES = new Interner.Derived<>();
+
+    // never modified once set, replaced as a whole together with the index
+    private volatile List<String> regexes = new ArrayList<>();
+
+    // built on first use after deserialization
+    private transient volatile RegexPrefixIndex index;
+
+    @DataBoundConstructor
+    public MultiRegexJobFullNameRunMatcher() {}
+
+    /**
+     * Combine several {@link RegexJobFullNameRunMatcher}s into one matcher.
+     *
+     * @throws IllegalArgumentException if any of the matchers uses linear-time matching, which this matcher does not
+     *     support
+     */
+    public static MultiRegexJobFullNameRunMatcher of(@Nonnull Collection<RegexJobFullNameRunMatcher> matchers) {
+        List<String> regexes = new ArrayList<>();
+        for (RegexJobFullNameRunMatcher matcher : matchers) {
+            if (matcher.isLinearTime()) {
+                throw new IllegalArgumentException("Cannot combine the linear-time regular expression "
+                        + matcher.getRegex() + " with other regular expressions");
+            }
+            if (matcher.getRegex() != null) {
+                regexes.add(matcher.getRegex());
+            }
+        }
+        MultiRegexJobFullNameRunMatcher result = new MultiRegexJobFullNameRunMatcher();
+        result.setRegexes(regexes);
+        return result;
+    }
+
+    /**
+     * Set the regular expressions. Entries containing line breaks are split into one expression per line, as
+     * submitted by the configuration form. Expressions are kept as written, only empty lines are dropped.
+     */
+    @DataBoundSetter
+    public synchronized void setRegexes(List<String> regexes) {
+        List<String> lines = new ArrayList<>();
+        if (regexes != null) {
+            for (String entry : regexes) {
+                if (entry == null) {
+                    continue;
+                }
+                for (String line : entry.split("\\R")) {
+                    if (!line.isEmpty()) {
+                        lines.add(line);
+                    }
+                }
+            }
+        }
+        this.regexes = lines;
+        this.index = INDEXES.get(lines, RegexPrefixIndex::new);
+        configurationChanged();
+    }
+
+    private Object readResolve() {
+        if (regexes == null) {
+            regexes = new ArrayList<>();
+        }
+        regexes = Interner.internAll(regexes);
+        return this;
+    }
+
+    private RegexPrefixIndex index() {
+        RegexPrefixIndex i = index;
+        if (i == null) {
+            synchronized (this) {
+                i = index;
+                if (i == null) {
+                    i = INDEXES.get(regexes, RegexPrefixIndex::new);
+                    index = i;
+                }
+            }
+        }
+        return i;
+    }
+
+    public @Nonnull List<String> getRegexes() {
+        return Collections.unmodifiableList(regexes);
+    }
+
+    /**
+     * The expressions without a wrapper. The list is never modified, but replaced when the configuration changes, so
+     * it can be compared by identity.
+     */
+    List<String> getRegexesSnapshot() {
+        return regexes;
+    }
+
+    // used by Jelly view
+    public String getRegexesText() {
+        return String.join("\n", regexes);
+    }
+
+    @Override
+    public boolean testJob(@Nonnull Job<?, ?> job) {
+        return index().matchesAny(JobFullName.of(job));
+    }
+
+    @Override
+    public String toString() {
+        return String.join(", ", regexes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        MultiRegexJobFullNameRunMatcher other = (MultiRegexJobFullNameRunMatcher) obj;
+        return Objects.equals(regexes, other.regexes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(regexes);
+    }
+
+    /**
+     * Determine which of the expressions match the full name of the job of the specified build. Expressions that
+     * exceeded their work budget are included, see {@link MatchBudgetExceededException}.
+     *
+     * @return the indices into {@link #getRegexes()} of the matching expressions
+     */
+    public @Nonnull BitSet getMatchingRegexes(@Nonnull Run<?, ?> run) {
+        return index().matching(JobFullName.of(run.getParent()));
+    }
+
+    @Extension
+    @Symbol("jobNameRegexes")
+    public static final class DescriptorImpl extends Descriptor<RunMatcher> {
+        @Override
+        public @Nonnull String getDisplayName() {
+            return Messages.MultiRegexJobFullNameBuildMatcher_DisplayName();
+        }
+
+        /**
+         * Checks if all the regular expressions are valid.
+         */
+        // used by Jelly view
+        @POST
+        public FormValidation doCheckRegexes(@QueryParameter String value) {
+            if (value == null) {
+                return FormValidation.ok();
+            }
+            String[] lines = value.split("\\R");
+            for (int i = 0; i < lines.length; i++) {
+                String v = lines[i];
+                if (!v.isEmpty()) {
+                    try {
+                        Pattern.compile(v);
+                    } catch (PatternSyntaxException pse) {
+                        return FormValidation.errorWithMarkup(
+                                Messages.MultiRegexJobFullNameBuildMatcher_Validation_Invalid(i + 1) + "<pre>"
+                                        + Util.escape(pse.getMessage()) + "</pre>");
+                    }
+                }
+            }
+            return FormValidation.ok();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import hudson.Extension;
+import hudson.model.Descriptor;
+import hudson.model.Job;
+import hudson.model.Run;
+import io.jenkins.plugins.environment_filter_utils.util.MatcherMetrics;
+import java.util.Objects;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Matches builds not matched by another matcher. Without a matcher, every build is matched.
+ */
+@Restricted(NoExternalUse.class)
+public class NotRunMatcher implements RunMatcher {
+    private static final long serialVersionUID = 1L;
+
+    private volatile RunMatcher matcher;
+
+    // the newest version of this configuration, see ConfigurationVersion
+    private transient volatile long version;
+
+    @DataBoundConstructor
+    public NotRunMatcher() {}
+
+    @DataBoundSetter
+    public void setMatcher(RunMatcher matcher) {
+        this.matcher = matcher;
+        configurationChanged();
+    }
+
+    public @CheckForNull RunMatcher getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * Record a change of configuration, after publishing it.
+     */
+    final synchronized void configurationChanged() {
+        version = ConfigurationVersion.next();
+    }
+
+    final long version() {
+        return version;
+    }
+
+    @Override
+    public boolean test(@Nonnull Run<?, ?> run) {
+        long start = MatcherMetrics.start();
+        Boolean result = null;
+        try {
+            RunMatcher m = matcher;
+            // MatchBudgetExceededException is passed on, not inverted into a match
+            result = m == null || !m.test(run);
+            return result;
+        } finally {
+            MatcherMetrics.record(this, start, result);
+        }
+    }
+
+    @Override
+    public boolean testJob(@Nonnull Job<?, ?> job) {
+        RunMatcher m = matcher;
+        return m == null || !m.testJob(job);
+    }
+
+    @Override
+    public boolean onLocationChanged(@Nonnull String oldFullName, @Nonnull String newFullName) {
+        RunMatcher m = matcher;
+        return m != null && m.onLocationChanged(oldFullName, newFullName);
+    }
+
+    @Override
+    public String toString() {
+        return "not(" + matcher + ")";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        NotRunMatcher other = (NotRunMatcher) obj;
+        return Objects.equals(matcher, other.matcher);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(matcher);
+    }
+
+    @Extension
+    @Symbol("not")
+    public static final class DescriptorImpl extends Descriptor<RunMatcher> {
+        @Override
+        public @Nonnull String getDisplayName() {
+            return Messages.NotBuildMatcher_DisplayName();
+        }
+    }
+}
@@ -27,10 +27,16 @@ import hudson.Extension;
 import hudson.Util;
 import hudson.model.Descriptor;
 import hudson.model.Item;
-import hudson.model.Run;
+import hudson.model.Job;
 import hudson.util.FormValidation;
-import java.util.ArrayList;
+import io.jenkins.plugins.environment_filter_utils.util.JobFullName;
+import io.jenkins.plugins.environment_filter_utils.util.LinearPattern;
+import io.jenkins.plugins.environment_filter_utils.util.PatternCache;
+import io.jenkins.plugins.environment_filter_utils.util.RegexAnalyzer;
+import io.jenkins.plugins.environment_filter_utils.util.RegexBudget;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
@@ -47,30 +53,168 @@ import org.kohsuke.stapler.interceptor.RequirePOST;
 import org.kohsuke.stapler.verb.POST;
 
 @Restricted(NoExternalUse.class)
-public class RegexJobFullNameRunMatcher implements RunMatcher {
+public class RegexJobFullNameRunMatcher extends JobRunMatcher {
+    private static final long serialVersionUID = 1L;
+
+    // the persisted configuration, only accessed while holding the lock, evaluations use the snapshot
     private String regex;
 
+    private boolean linearTime;
+
+    /**
+     * The configuration with its compiled pattern, replaced as a whole when the configuration changes, so that
+     * concurrent evaluations use either the old or the new configuration without locking. Created on first use after
+     * deserialization.
+     */
+    private transient volatile Snapshot snapshot;
+
     @DataBoundConstructor
     public RegexJobFullNameRunMatcher() {}
 
     @DataBoundSetter
-    public void setRegex(String regex) {
+    public synchronized void setRegex(String regex) {
         this.regex = regex;
+        publish();
+    }
+
+    /**
+     * Evaluate the regular expression with {@link LinearPattern}, which takes linear time for any expression but does
+     * not support all constructs.
+     */
+    @DataBoundSetter
+    public synchronized void setLinearTime(boolean linearTime) {
+        this.linearTime = linearTime;
+        publish();
+    }
+
+    private Object readResolve() {
+        // the compiled pattern is shared through PatternCache
+        this.regex = Util.intern(regex);
+        return this;
+    }
+
+    private void publish() {
+        Snapshot s = new Snapshot(regex, linearTime);
+        try {
+            s.compile();
+        } catch (PatternSyntaxException e) {
+            // reported when the matcher is evaluated
+        }
+        this.snapshot = s;
+        configurationChanged();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    s = new Snapshot(regex, linearTime);
+                    snapshot = s;
+                }
+            }
+        }
+        return s;
     }
 
     // used by Jelly view
     public String getRegex() {
-        return regex;
+        return snapshot().regex;
+    }
+
+    // used by Jelly view
+    public boolean isLinearTime() {
+        return snapshot().linearTime;
+    }
+
+    /**
+     * The expression if it can be evaluated by {@link BatchPlan}, read from one snapshot of the configuration.
+     */
+    String getIndexableRegex() {
+        Snapshot s = snapshot();
+        // linear-time expressions are evaluated individually
+        return s.linearTime ? null : s.regex;
+    }
+
+    @Override
+    public boolean testJob(@Nonnull Job<?, ?> job) {
+        Snapshot s = snapshot();
+        return s.regex != null && s.matches(JobFullName.of(job));
     }
 
     @Override
-    public boolean test(@Nonnull Run<?, ?> run) {
-        if (regex == null) {
-            // should not happen but better safe than sorry
+    public String toString() {
+        return snapshot().regex;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
             return false;
         }
-        String fullName = run.getParent().getFullName();
-        return fullName.matches(regex);
+        Snapshot s = snapshot();
+        Snapshot other = ((RegexJobFullNameRunMatcher) obj).snapshot();
+        return Objects.equals(s.regex, other.regex) && s.linearTime == other.linearTime;
+    }
+
+    @Override
+    public int hashCode() {
+        Snapshot s = snapshot();
+        return Objects.hash(s.regex, s.linearTime);
+    }
+
+    private static final class Snapshot {
+        private final String regex;
+        private final boolean linearTime;
+
+        // compiled on first use, the same instance for all threads through PatternCache
+        private volatile Pattern pattern;
+        private volatile LinearPattern linearPattern;
+
+        Snapshot(String regex, boolean linearTime) {
+            this.regex = regex;
+            this.linearTime = linearTime;
+        }
+
+        /**
+         * @throws PatternSyntaxException for an invalid or unsupported regular expression
+         */
+        void compile() {
+            if (regex != null) {
+                if (linearTime) {
+                    linearPattern();
+                } else {
+                    pattern();
+                }
+            }
+        }
+
+        boolean matches(CharSequence fullName) {
+            // throws for an invalid or unsupported regular expression, the same way an invalid one always did
+            return linearTime ? linearPattern().matches(fullName) : RegexBudget.matches(pattern(), fullName);
+        }
+
+        private Pattern pattern() {
+            Pattern p = pattern;
+            if (p == null) {
+                p = PatternCache.compile(regex);
+                pattern = p;
+            }
+            return p;
+        }
+
+        private LinearPattern linearPattern() {
+            LinearPattern p = linearPattern;
+            if (p == null) {
+                p = PatternCache.compileLinear(regex);
+                linearPattern = p;
+            }
+            return p;
+        }
     }
 
     @Extension
@@ -82,11 +226,11 @@ public class RegexJobFullNameRunMatcher implements RunMatcher {
         }
 
         /**
-         * Checks if the regular expression is valid.
+         * Checks if the regular expression is valid, and warns about expressions that may take very long to evaluate.
          */
         // used by Jelly view
         @POST
-        public FormValidation doCheckRegex(@QueryParameter String value) {
+        public FormValidation doCheckRegex(@QueryParameter String value, @QueryParameter boolean linearTime) {
             String v = Util.fixEmpty(value);
             if (v != null) {
                 try {
@@ -95,12 +239,44 @@ public class RegexJobFullNameRunMatcher implements RunMatcher {
                     // TODO would be nice if the formatting for a form validation response would be a core feature
                     return FormValidation.errorWithMarkup("<pre>" + Util.escape(pse.getMessage()) + "</pre>");
                 }
+                if (linearTime) {
+                    try {
+                        LinearPattern.compile(v);
+                    } catch (PatternSyntaxException pse) {
+                        return FormValidation.errorWithMarkup(
+                                Messages.RegexJobFullNameBuildMatcher_Validation_LinearTimeUnsupported()
+                                        + "<pre>" + Util.escape(pse.getMessage()) + "</pre>");
+                    }
+                } else {
+                    Set<RegexAnalyzer.Issue> issues = RegexAnalyzer.analyze(v);
+                    if (!issues.isEmpty()) {
+                        StringBuilder message = new StringBuilder();
+                        for (RegexAnalyzer.Issue issue : issues) {
+                            message.append(Messages.RegexJobFullNameBuildMatcher_Validation_FoundEntry(
+                                    describe(issue)));
+                        }
+                        return FormValidation.warningWithMarkup(
+                                Messages.RegexJobFullNameBuildMatcher_Validation_Unsafe(message));
+                    }
+                }
             }
             return FormValidation.ok();
         }
 
+        private static String describe(RegexAnalyzer.Issue issue) {
+            switch (issue) {
+                case NESTED_QUANTIFIER:
+                    return Messages.RegexJobFullNameBuildMatcher_Validation_NestedQuantifier();
+                case OVERLAPPING_ALTERNATION:
+                    return Messages.RegexJobFullNameBuildMatcher_Validation_OverlappingAlternation();
+                default:
+                    return Messages.RegexJobFullNameBuildMatcher_Validation_AdjacentQuantifiers();
+            }
+        }
+
         @RequirePOST
-        public FormValidation doTestRegex(@QueryParameter String regex, @AncestorInPath Item context) {
+        public FormValidation doTestRegex(
+                @QueryParameter String regex, @QueryParameter boolean linearTime, @AncestorInPath Item context) {
             if (context == null) {
                 if (!Jenkins.get().hasPermission(Jenkins.ADMINISTER)) {
                     return FormValidation.ok();
@@ -111,44 +287,40 @@ public class RegexJobFullNameRunMatcher implements RunMatcher {
                 }
             }
 
-            FormValidation check = doCheckRegex(regex);
-            if (check.kind != FormValidation.Kind.OK) {
+            FormValidation check = doCheckRegex(regex, linearTime);
+            if (regex == null || check.kind == FormValidation.Kind.ERROR) {
                 return FormValidation.error(Messages.RegexJobFullNameBuildMatcher_Validation_Invalid());
             }
 
-            final Pattern pattern = Pattern.compile(regex);
-
-            List<String> matchingJobNames = new ArrayList<>();
-            boolean excessMatches = false;
-
-            for (Item item : Jenkins.get().allItems()) {
-                final String fullName = item.getFullName();
-                if (pattern.matcher(fullName).matches()) {
-                    if (matchingJobNames.size() == 10) {
-                        excessMatches = true;
-                        break;
-                    }
-                    matchingJobNames.add(fullName);
-                }
+            // evaluated like the matcher, so that the preview cannot take longer than an evaluation during a build
+            Snapshot snapshot = new Snapshot(regex, linearTime);
+            ItemSearch search = ItemSearch.search(snapshot::matches);
+            if (search.isBudgetExceeded()) {
+                return FormValidation.warning(Messages.RegexJobFullNameBuildMatcher_Validation_BudgetExceeded());
             }
+            List<String> matchingJobNames = search.getMatches();
 
             if (matchingJobNames.isEmpty()) {
+                if (search.isTruncated()) {
+                    return FormValidation.warning(
+                            Messages.RegexJobFullNameBuildMatcher_Validation_NoJobSearched(search.getVisited()));
+                }
                 return FormValidation.warning(Messages.RegexJobFullNameBuildMatcher_Validation_NoJob());
             }
 
-            if (excessMatches) {
-                return FormValidation.okWithMarkup(Messages.RegexJobFullNameBuildMatcher_Validation_FoundMore(
-                        Util.xmlEscape(regex),
-                        matchingJobNames.stream()
-                                .map(it ->
-                                        Messages.RegexJobFullNameBuildMatcher_Validation_FoundEntry(Util.xmlEscape(it)))
-                                .collect(Collectors.joining())));
+            String entries = matchingJobNames.stream()
+                    .map(it -> Messages.RegexJobFullNameBuildMatcher_Validation_FoundEntry(Util.xmlEscape(it)))
+                    .collect(Collectors.joining());
+            if (search.hasMore()) {
+                return FormValidation.okWithMarkup(
+                        Messages.RegexJobFullNameBuildMatcher_Validation_FoundMore(Util.xmlEscape(regex), entries));
+            }
+            if (search.isTruncated()) {
+                return FormValidation.okWithMarkup(Messages.RegexJobFullNameBuildMatcher_Validation_FoundSearched(
+                        Util.xmlEscape(regex), entries, search.getVisited()));
             }
-            return FormValidation.okWithMarkup(Messages.RegexJobFullNameBuildMatcher_Validation_Found(
-                    Util.xmlEscape(regex),
-                    matchingJobNames.stream()
-                            .map(it -> Messages.RegexJobFullNameBuildMatcher_Validation_FoundEntry(Util.xmlEscape(it)))
-                            .collect(Collectors.joining())));
+            return FormValidation.okWithMarkup(
+                    Messages.RegexJobFullNameBuildMatcher_Validation_Found(Util.xmlEscape(regex), entries));
         }
     }
 }
@@ -0,0 +1,221 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import io.jenkins.plugins.environment_filter_utils.util.PatternCache;
+import io.jenkins.plugins.environment_filter_utils.util.RegexBudget;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Evaluates many regular expressions against a job full name in one walk over the name.
+ * <p>
+ * Each expression is filed in a trie under the literal prefix every match of it has to start with. Walking the name
+ * down the trie yields the only expressions that can possibly match, so the cost depends on the length of the name
+ * and the number of candidates rather than on the total number of expressions.
+ */
+final class RegexPrefixIndex {
+    private static final int[] NONE = new int[0];
+
+    private final String[] regexes;
+    private final Pattern[] patterns;
+    private final Node root;
+
+    RegexPrefixIndex(List<String> regexes) {
+        this.regexes = regexes.toArray(new String[0]);
+        this.patterns = new Pattern[this.regexes.length];
+        Builder builder = new Builder();
+        for (int i = 0; i < this.regexes.length; i++) {
+            try {
+                patterns[i] = PatternCache.compile(this.regexes[i]);
+            } catch (PatternSyntaxException e) {
+                // reported when the expression is a candidate
+            }
+            builder.add(literalPrefix(this.regexes[i]), i);
+        }
+        this.root = builder.build();
+    }
+
+    int size() {
+        return regexes.length;
+    }
+
+    /**
+     * Whether any of the expressions matches the entire name.
+     *
+     * @throws MatchBudgetExceededException if no expression matches, and at least one exceeded its work budget
+     */
+    boolean matchesAny(CharSequence name) {
+        MatchBudgetExceededException exceeded = null;
+        Node node = root;
+        int i = 0;
+        while (node != null) {
+            for (int rule : node.rules) {
+                try {
+                    if (matches(rule, name)) {
+                        return true;
+                    }
+                } catch (MatchBudgetExceededException e) {
+                    // another expression may still match
+                    exceeded = e;
+                }
+            }
+            if (i == name.length()) {
+                break;
+            }
+            node = node.child(name.charAt(i++));
+        }
+        if (exceeded != null) {
+            throw exceeded;
+        }
+        return false;
+    }
+
+    /**
+     * The indices of all expressions matching the entire name. Expressions that exceeded their work budget are
+     * included, failing closed.
+     */
+    BitSet matching(CharSequence name) {
+        BitSet result = new BitSet(regexes.length);
+        Node node = root;
+        int i = 0;
+        while (node != null) {
+            for (int rule : node.rules) {
+                try {
+                    if (matches(rule, name)) {
+                        result.set(rule);
+                    }
+                } catch (MatchBudgetExceededException e) {
+                    result.set(rule);
+                }
+            }
+            if (i == name.length()) {
+                break;
+            }
+            node = node.child(name.charAt(i++));
+        }
+        return result;
+    }
+
+    private boolean matches(int rule, CharSequence name) {
+        Pattern pattern = patterns[rule];
+        if (pattern == null) {
+            // invalid regular expression, fails the same way a single RegexJobFullNameRunMatcher does
+            pattern = PatternCache.compile(regexes[rule]);
+        }
+        return RegexBudget.matches(pattern, name);
+    }
+
+    /**
+     * Compute a string every match of the expression has to start with. This is conservative, anything that is not
+     * obviously a literal ends the prefix.
+     */
+    static String literalPrefix(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            // alternatives may not share a prefix
+            return "";
+        }
+        StringBuilder prefix = new StringBuilder();
+        int i = regex.startsWith("^") ? 1 : 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            int next;
+            if (c == '\\') {
+                if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    // character classes, back references, quotes...
+                    break;
+                }
+                c = regex.charAt(i + 1);
+                next = i + 2;
+            } else if ("[](){}.*+?^$".indexOf(c) >= 0) {
+                break;
+            } else {
+                next = i + 1;
+            }
+            if (next < regex.length()) {
+                char quantifier = regex.charAt(next);
+                if (quantifier == '*' || quantifier == '?' || quantifier == '{') {
+                    // this character is optional or repeated an unknown number of times
+                    break;
+                }
+                if (quantifier == '+') {
+                    prefix.append(c);
+                    break;
+                }
+            }
+            prefix.append(c);
+            i = next;
+        }
+        return prefix.toString();
+    }
+
+    private static final class Node {
+        private final char[] keys;
+        private final Node[] children;
+        private final int[] rules;
+
+        Node(char[] keys, Node[] children, int[] rules) {
+            this.keys = keys;
+            this.children = children;
+            this.rules = rules;
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i < 0 ? null : children[i];
+        }
+    }
+
+    private static final class Builder {
+        private final Map<Character, Builder> children = new TreeMap<>();
+        private final List<Integer> rules = new ArrayList<>();
+
+        void add(String prefix, int rule) {
+            Builder node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Builder());
+            }
+            node.rules.add(rule);
+        }
+
+        Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                nodes[i] = entry.getValue().build();
+                i++;
+            }
+            int[] r = rules.isEmpty() ? NONE : rules.stream().mapToInt(Integer::intValue).toArray();
+            return new Node(keys, nodes, r);
+        }
+    }
+}
@@ -27,10 +27,14 @@ import hudson.ExtensionList;
 import hudson.ExtensionPoint;
 import hudson.model.Describable;
 import hudson.model.Descriptor;
+import hudson.model.Job;
 import hudson.model.Run;
+import io.jenkins.plugins.environment_filter_utils.util.DescriptorCache;
 import java.io.Serializable;
+import java.util.BitSet;
+import java.util.List;
 import java.util.function.Predicate;
-import jenkins.model.Jenkins;
+import javax.annotation.Nonnull;
 
 /**
  * Utility class that allows matching a build.
@@ -44,9 +48,56 @@ public interface RunMatcher extends Describable<RunMatcher>, Serializable, Exten
         return ExtensionList.lookup(RunMatcher.class);
     }
 
+    /**
+     * Evaluate several matchers against the same build. This gives the same results as calling {@link #test(Object)}
+     * on each matcher, but matchers of the same kind are evaluated together where possible, like exact job names in
+     * a single hash lookup and regular expressions in a single walk over the full name.
+     * <p>
+     * Callers should pass the same list instance on every call, as the grouping is computed once per list. While the
+     * build is in progress, the result is remembered like for {@link #testCached(Run)}. Matchers that exceeded their
+     * work budget are included, see {@link MatchBudgetExceededException}, and so are matchers with an invalid regular
+     * expression, which would fail when evaluated on their own.
+     *
+     * @return the indices of the matching matchers
+     */
+    static @Nonnull BitSet evaluateAll(@Nonnull Run<?, ?> run, @Nonnull List<? extends RunMatcher> matchers) {
+        return RunVerdictCache.evaluate(BatchPlan.of(matchers), run);
+    }
+
+    /**
+     * Like {@link #test(Object)}, but remembers the verdict while the build is in progress, for callers that evaluate
+     * the same matcher again and again during a build, like for each step of a Pipeline. Verdicts are released when
+     * the build is finalized.
+     */
+    default boolean testCached(@Nonnull Run<?, ?> run) {
+        return RunVerdictCache.test(this, run);
+    }
+
+    /**
+     * Whether this matcher matches builds of the specified job. This allows previewing which jobs a matcher applies
+     * to without a build being run.
+     * <p>
+     * The default implementation evaluates the last build of the job, and does not match jobs without builds.
+     * Matchers whose verdict only depends on the job should override this, so that builds do not need to be loaded.
+     */
+    default boolean testJob(@Nonnull Job<?, ?> job) {
+        Run<?, ?> build = job.getLastBuild();
+        return build != null && test(build);
+    }
+
+    /**
+     * Update references to a job or folder that was renamed or moved. Matchers are not tracked by this plugin, so the
+     * owner of a matcher should call this from {@link hudson.model.listeners.ItemListener#onLocationChanged} and save
+     * its configuration when this returns {@code true}.
+     *
+     * @return whether the configuration of this matcher changed
+     */
+    default boolean onLocationChanged(@Nonnull String oldFullName, @Nonnull String newFullName) {
+        return false;
+    }
+
     @Override
-    @SuppressWarnings("unchecked")
     default Descriptor<RunMatcher> getDescriptor() {
-        return Jenkins.get().getDescriptorOrDie(getClass());
+        return DescriptorCache.get(getClass());
     }
 }
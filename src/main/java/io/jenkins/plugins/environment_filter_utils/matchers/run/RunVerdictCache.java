@@ -0,0 +1,266 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers.run;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Run;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+
+/**
+ * Remembers verdicts for builds in progress, see {@link RunMatcher#testCached(Run)} and
+ * {@link RunMatcher#evaluateAll(Run, List)}. The job of a build does not change while it is running, so neither do
+ * the verdicts of matchers looking at it, while a Pipeline may evaluate them for thousands of steps.
+ * <p>
+ * Verdicts are kept per build and matcher instance, and released when the build is finalized or deleted. They are
+ * evaluated again when the matcher has been reconfigured since, see {@link ConfigurationVersion}. At most
+ * {@link #MAX_RUNS} builds are tracked, and at most {@link #MAX_VERDICTS} verdicts per build, further verdicts are
+ * not remembered. Completed builds are never tracked.
+ * <p>
+ * Looking up a verdict neither locks nor allocates, so that executors evaluating matchers do not contend.
+ */
+final class RunVerdictCache {
+    private static final int MAX_RUNS =
+            SystemProperties.getInteger(RunVerdictCache.class.getName() + ".maxRuns", 1_000);
+
+    private static final int MAX_VERDICTS =
+            SystemProperties.getInteger(RunVerdictCache.class.getName() + ".maxVerdicts", 256);
+
+    // builds do not override equals, so this is keyed by identity, weakly in case a build is never finalized
+    private static final Map<Object, Verdicts> VERDICTS = new ConcurrentHashMap<>();
+
+    private static final ReferenceQueue<Run<?, ?>> COLLECTED = new ReferenceQueue<>();
+
+    private static final ThreadLocal<Lookup> LOOKUP = ThreadLocal.withInitial(Lookup::new);
+
+    private RunVerdictCache() {}
+
+    static boolean test(@Nonnull RunMatcher matcher, @Nonnull Run<?, ?> run) {
+        if (!run.isBuilding()) {
+            return matcher.test(run);
+        }
+        Verdicts verdicts = verdicts(run);
+        long version = ConfigurationVersion.of(matcher);
+        Boolean verdict = (Boolean) verdicts.get(matcher, version);
+        if (verdict == null) {
+            verdict = matcher.test(run);
+            verdicts.put(matcher, version, verdict);
+        }
+        return verdict;
+    }
+
+    static @Nonnull BitSet evaluate(@Nonnull BatchPlan plan, @Nonnull Run<?, ?> run) {
+        if (!run.isBuilding()) {
+            return plan.evaluate(run);
+        }
+        Verdicts verdicts = verdicts(run);
+        long version = plan.version();
+        BitSet result = (BitSet) verdicts.get(plan, version);
+        if (result == null) {
+            result = plan.evaluate(run);
+            verdicts.put(plan, version, result);
+        }
+        // callers may modify the result
+        return (BitSet) result.clone();
+    }
+
+    private static Verdicts verdicts(Run<?, ?> run) {
+        Lookup lookup = LOOKUP.get();
+        lookup.run = run;
+        Verdicts verdicts;
+        try {
+            verdicts = VERDICTS.get(lookup);
+        } finally {
+            lookup.run = null;
+        }
+        if (verdicts == null) {
+            // first evaluation for this build, the only time anything is allocated
+            expunge();
+            if (VERDICTS.size() >= MAX_RUNS) {
+                VERDICTS.clear();
+            }
+            Verdicts created = new Verdicts();
+            verdicts = VERDICTS.putIfAbsent(new Key(run, COLLECTED), created);
+            if (verdicts == null) {
+                verdicts = created;
+            }
+        }
+        return verdicts;
+    }
+
+    private static void release(Run<?, ?> run) {
+        Lookup lookup = LOOKUP.get();
+        lookup.run = run;
+        try {
+            VERDICTS.remove(lookup);
+        } finally {
+            lookup.run = null;
+        }
+    }
+
+    private static void expunge() {
+        Reference<?> collected;
+        while ((collected = COLLECTED.poll()) != null) {
+            VERDICTS.remove(collected);
+        }
+    }
+
+    /**
+     * The verdicts for one build, by matcher or {@link BatchPlan} instance.
+     */
+    private static final class Verdicts {
+        private static final Entry[] NONE = new Entry[0];
+
+        // never modified once set, replaced as a whole, so that lookups do not lock
+        private volatile Entry[] entries = NONE;
+
+        Object get(Object key, long version) {
+            for (Entry entry : entries) {
+                // matchers are compared by identity, the same way as BatchPlan
+                if (entry.key == key) {
+                    return entry.version == version ? entry.verdict : null;
+                }
+            }
+            return null;
+        }
+
+        synchronized void put(Object key, long version, Object verdict) {
+            Entry[] current = entries;
+            Entry entry = new Entry(key, version, verdict);
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].key == key) {
+                    // the matcher was reconfigured
+                    Entry[] replaced = current.clone();
+                    replaced[i] = entry;
+                    entries = replaced;
+                    return;
+                }
+            }
+            if (current.length < MAX_VERDICTS) {
+                Entry[] extended = Arrays.copyOf(current, current.length + 1);
+                extended[current.length] = entry;
+                entries = extended;
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Object key;
+        private final long version;
+        private final Object verdict;
+
+        Entry(Object key, long version, Object verdict) {
+            this.key = key;
+            this.version = version;
+            this.verdict = verdict;
+        }
+    }
+
+    /**
+     * Weak reference to a build, equal to other keys and lookups for the same build.
+     */
+    private static final class Key extends WeakReference<Run<?, ?>> {
+        private final int hash;
+
+        Key(Run<?, ?> run, ReferenceQueue<Run<?, ?>> queue) {
+            super(run, queue);
+            this.hash = System.identityHashCode(run);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            Run<?, ?> run = get();
+            if (run == null) {
+                return false;
+            }
+            if (obj instanceof Key) {
+                return run == ((Key) obj).get();
+            }
+            return obj instanceof Lookup && run == ((Lookup) obj).run;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Reusable per thread to look up the {@link Key} of a build without allocating one.
+     */
+    private static final class Lookup {
+        private Run<?, ?> run;
+
+        @Override
+        public boolean equals(Object obj) {
+            return run != null && obj instanceof Key && ((Key) obj).get() == run;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(run);
+        }
+    }
+
+    /**
+     * Releases the verdicts of a build once it is done.
+     */
+    @Extension
+    public static final class Releaser extends RunListener<Run<?, ?>> {
+        @Override
+        public void onFinalized(Run<?, ?> run) {
+            release(run);
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            release(run);
+        }
+    }
+
+    /**
+     * Discards all verdicts when the full name of a job may have changed.
+     */
+    @Extension
+    public static final class Invalidator extends ItemListener {
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            VERDICTS.clear();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.report;
+
+import hudson.model.Descriptor;
+import hudson.model.Job;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.DescriptorMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.MatchBudgetExceededException;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RunMatcher;
+import io.jenkins.plugins.environment_filter_utils.util.BuilderUtil;
+import io.jenkins.plugins.environment_filter_utils.util.ItemTraversal;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import net.sf.json.util.JSONUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.verb.POST;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Evaluates a {@link RunMatcher} against all jobs and a {@link DescriptorMatcher} against all builder descriptors in
+ * the background, to show which jobs and builders a filter rule would apply to before it is rolled out.
+ * <p>
+ * Jobs are visited in parallel by {@link ItemTraversal}, and only those the user who started the report can read are
+ * evaluated. Matching jobs are appended to the report as they are found, so the report can be read page by page while
+ * it is still running. Reports stop after {@link #MAX_ITEMS} jobs.
+ * <p>
+ * At most {@link #MAX_RUNNING} reports are computed at the same time, and at most {@link #MAX_QUEUED} more wait for
+ * their turn. Further reports are rejected until one of them is done or cancelled.
+ */
+@Restricted(NoExternalUse.class)
+public final class ImpactReport {
+    private static final Logger LOGGER = Logger.getLogger(ImpactReport.class.getName());
+
+    static final int MAX_ITEMS = SystemProperties.getInteger(ImpactReport.class.getName() + ".maxItems", 250_000);
+
+    static final int MAX_PAGE_SIZE = 1_000;
+
+    static final int MAX_RUNNING = SystemProperties.getInteger(ImpactReport.class.getName() + ".maxRunning", 2);
+
+    static final int MAX_QUEUED = SystemProperties.getInteger(ImpactReport.class.getName() + ".maxQueued", 8);
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final RunMatcher runMatcher;
+    private final DescriptorMatcher descriptorMatcher;
+    private final Authentication authentication;
+    private final long started = System.nanoTime();
+
+    private final AtomicInteger visited = new AtomicInteger();
+    private final AtomicInteger evaluated = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    // only appended to, so that a page keeps its content once it is complete
+    private final List<String> jobs = Collections.synchronizedList(new ArrayList<>());
+    private volatile List<Descriptor> builders = Collections.emptyList();
+
+    private volatile State state = State.RUNNING;
+    private volatile boolean truncated;
+    private volatile long elapsedNanos = -1;
+    private final CountDownLatch done = new CountDownLatch(1);
+    // identifies the report in the queue of the executor
+    private final Runnable task = this::run;
+
+    private ImpactReport(RunMatcher runMatcher, DescriptorMatcher descriptorMatcher, Authentication authentication) {
+        this.runMatcher = runMatcher;
+        this.descriptorMatcher = descriptorMatcher;
+        this.authentication = authentication;
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                MAX_RUNNING,
+                MAX_RUNNING,
+                1,
+                TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(MAX_QUEUED),
+                new NamingThreadFactory(new DaemonThreadFactory(), "ImpactReport"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Start a report in the background, evaluated as the current user.
+     *
+     * @throws RejectedExecutionException if too many reports are already running or waiting
+     */
+    static @Nonnull ImpactReport start(@Nonnull RunMatcher runMatcher, @Nonnull DescriptorMatcher descriptorMatcher) {
+        ImpactReport report = new ImpactReport(runMatcher, descriptorMatcher, Jenkins.getAuthentication2());
+        EXECUTOR.execute(report.task);
+        return report;
+    }
+
+    private void run() {
+        if (state != State.RUNNING) {
+            // cancelled while waiting
+            finish();
+            return;
+        }
+        State result = State.FAILED;
+        try (ACLContext ignored = ACL.as2(authentication)) {
+            List<Descriptor> matchingBuilders = new ArrayList<>();
+            for (Descriptor<?> d : BuilderUtil.allDescriptors()) {
+                if (descriptorMatcher.test(d)) {
+                    matchingBuilders.add(d);
+                }
+            }
+            builders = Collections.unmodifiableList(matchingBuilders);
+
+            ItemTraversal.forEach(Jenkins.get(), authentication, item -> {
+                if (state != State.RUNNING) {
+                    return false;
+                }
+                if (item instanceof Job) {
+                    if (visited.getAndIncrement() >= MAX_ITEMS) {
+                        truncated = true;
+                        return false;
+                    }
+                    evaluate((Job<?, ?>) item);
+                }
+                return true;
+            });
+            result = State.COMPLETED;
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to compute impact report " + id, e);
+        } finally {
+            if (state == State.RUNNING) {
+                state = result;
+            }
+            finish();
+        }
+    }
+
+    private void finish() {
+        elapsedNanos = System.nanoTime() - started;
+        done.countDown();
+    }
+
+    private void evaluate(Job<?, ?> job) {
+        try {
+            if (runMatcher.testJob(job)) {
+                jobs.add(job.getFullName());
+            }
+        } catch (MatchBudgetExceededException e) {
+            // the filter would be applied
+            jobs.add(job.getFullName());
+        } catch (RuntimeException e) {
+            if (errors.getAndIncrement() == 0) {
+                LOGGER.log(Level.WARNING, "Failed to evaluate " + runMatcher + " for " + job.getFullName(), e);
+            }
+        }
+        evaluated.incrementAndGet();
+    }
+
+    /**
+     * Stop evaluating further jobs. Jobs found so far remain part of the report.
+     */
+    void cancel() {
+        if (state == State.RUNNING) {
+            state = State.CANCELLED;
+        }
+        // give up the place in the queue if the report has not started yet
+        if (EXECUTOR.remove(task)) {
+            finish();
+        }
+    }
+
+    /**
+     * Wait for the report to complete.
+     *
+     * @return whether the report completed in time
+     */
+    boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    public @Nonnull String getId() {
+        return id;
+    }
+
+    public @Nonnull State getState() {
+        return state;
+    }
+
+    /**
+     * Full names of the matching jobs found so far, in the order they were found.
+     */
+    public @Nonnull List<String> getJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs);
+        }
+    }
+
+    /**
+     * The matching builder descriptors.
+     */
+    public @Nonnull List<Descriptor> getBuilders() {
+        return builders;
+    }
+
+    /**
+     * The progress of the report, and the matching builders.
+     */
+    public void doIndex(StaplerResponse2 rsp) throws IOException {
+        JSONObject json = new JSONObject();
+        json.put("id", id);
+        json.put("state", state.name());
+        json.put("visited", Math.min(visited.get(), MAX_ITEMS));
+        json.put("evaluated", evaluated.get());
+        json.put("matched", jobs.size());
+        json.put("errors", errors.get());
+        json.put("truncated", truncated);
+        long elapsed = elapsedNanos;
+        json.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsed < 0 ? System.nanoTime() - started : elapsed));
+        JSONArray array = new JSONArray();
+        for (Descriptor d : builders) {
+            JSONObject builder = new JSONObject();
+            builder.put("id", d.getId());
+            builder.put("displayName", d.getDisplayName());
+            array.add(builder);
+        }
+        json.put("builders", array);
+        rsp.setContentType("application/json;charset=UTF-8");
+        json.write(rsp.getWriter());
+    }
+
+    /**
+     * A page of the matching jobs found so far. The entries of a page do not change once it is full.
+     */
+    public void doJobs(StaplerResponse2 rsp, @QueryParameter int offset, @QueryParameter int limit)
+            throws IOException {
+        int from = Math.max(0, offset);
+        int size = limit <= 0 ? 100 : Math.min(limit, MAX_PAGE_SIZE);
+        List<String> page;
+        int total;
+        synchronized (jobs) {
+            total = jobs.size();
+            page = from >= total
+                    ? Collections.emptyList()
+                    : new ArrayList<>(jobs.subList(from, Math.min(total, from + size)));
+        }
+        rsp.setContentType("application/json;charset=UTF-8");
+        PrintWriter w = rsp.getWriter();
+        w.write("{\"state\":");
+        w.write(JSONUtils.quote(state.name()));
+        w.write(",\"offset\":" + from + ",\"total\":" + total + ",\"jobs\":[");
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) {
+                w.write(',');
+            }
+            w.write(JSONUtils.quote(page.get(i)));
+        }
+        w.write("]}");
+    }
+
+    @POST
+    public void doCancel(StaplerResponse2 rsp) {
+        cancel();
+        rsp.setStatus(204);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.report;
+
+import hudson.Extension;
+import hudson.model.RootAction;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.All;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.DescriptorMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RunMatcher;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import javax.annotation.CheckForNull;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Allows administrators to compute an {@link ImpactReport} for a filter rule.
+ * <p>
+ * A report is started by posting a JSON object to {@code start}, with the matchers in the {@code runMatcher} and
+ * {@code descriptorMatcher} properties, each with a {@code $class} property naming its class and the properties of
+ * its configuration form. The descriptor matcher is optional and defaults to {@link All}. The response contains the
+ * URL of the report, which provides its progress and the matching builders, and the matching jobs page by page from
+ * {@code jobs?offset=…&limit=…}. When too many reports are already running or waiting, the request is rejected
+ * with status 503.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class ImpactReportAction implements RootAction {
+    private static final int MAX_REPORTS = 10;
+
+    private final Map<String, ImpactReport> reports = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImpactReport> eldest) {
+            if (size() > MAX_REPORTS) {
+                eldest.getValue().cancel();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return "environment-filter-impact";
+    }
+
+    @POST
+    public void doStart(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        RunMatcher runMatcher;
+        DescriptorMatcher descriptorMatcher;
+        try {
+            JSONObject json = JSONObject.fromObject(IOUtils.toString(req.getReader()));
+            JSONObject runMatcherJson = json.optJSONObject("runMatcher");
+            if (runMatcherJson == null || runMatcherJson.isNullObject()) {
+                rsp.sendError(HttpServletResponse.SC_BAD_REQUEST, "runMatcher is required");
+                return;
+            }
+            runMatcher = req.bindJSON(RunMatcher.class, runMatcherJson);
+            JSONObject descriptorMatcherJson = json.optJSONObject("descriptorMatcher");
+            descriptorMatcher = descriptorMatcherJson == null || descriptorMatcherJson.isNullObject()
+                    ? new All()
+                    : req.bindJSON(DescriptorMatcher.class, descriptorMatcherJson);
+        } catch (JSONException | IllegalArgumentException e) {
+            rsp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        ImpactReport report;
+        try {
+            report = ImpactReport.start(runMatcher, descriptorMatcher);
+        } catch (RejectedExecutionException e) {
+            rsp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many impact reports, try again later");
+            return;
+        }
+        synchronized (reports) {
+            reports.put(report.getId(), report);
+        }
+        String url = Jenkins.get().getRootUrlFromRequest() + getUrlName() + "/report/" + report.getId() + "/";
+        JSONObject json = new JSONObject();
+        json.put("id", report.getId());
+        json.put("url", url);
+        rsp.setStatus(HttpServletResponse.SC_CREATED);
+        rsp.setHeader("Location", url);
+        rsp.setContentType("application/json;charset=UTF-8");
+        json.write(rsp.getWriter());
+    }
+
+    // used by Stapler
+    public @CheckForNull ImpactReport getReport(String id) {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        synchronized (reports) {
+            return reports.get(id);
+        }
+    }
+}
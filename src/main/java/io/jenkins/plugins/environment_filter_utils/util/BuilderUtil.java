@@ -24,37 +24,192 @@
 package io.jenkins.plugins.environment_filter_utils.util;
 
 import hudson.ExtensionList;
+import hudson.ExtensionListListener;
 import hudson.model.Descriptor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.CheckForNull;
 import jenkins.tasks.filters.EnvVarsFilterableBuilder;
+import org.jvnet.localizer.LocaleProvider;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 @Restricted(NoExternalUse.class)
 public class BuilderUtil {
+    private static volatile Registry registry;
+
+    /**
+     * Incremented when extensions change. A registry built from the extensions before a change is never used after
+     * it, even when it is published after the change.
+     */
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+
+    /**
+     * The descriptor extension list we listen to for changes.
+     */
+    private static ExtensionList<Descriptor> listenedTo;
+
     /**
      * Return all classes implementing {@link EnvVarsFilterableBuilder} that can be found using the Jenkins extension
      * mechanism. There might be others, so the result should be treated as incomplete.
      *
-     * @return a list of classes implementing {@link EnvVarsFilterableBuilder}.
+     * @return an unmodifiable list of classes implementing {@link EnvVarsFilterableBuilder}, in the order of
+     * {@link #allDescriptors()}.
      */
-    @SuppressWarnings("unchecked")
     public static List<Class<EnvVarsFilterableBuilder>> allBuilders() {
-        return allDescriptors().stream()
-                .map(descriptor -> (Class<EnvVarsFilterableBuilder>) descriptor.clazz)
-                .collect(Collectors.toList());
+        return registry().sorted().builders;
     }
 
     /**
      * Return all descriptors for classes implemeneting {@link EnvVarsFilterableBuilder} that can be found using the
      * Jenkins extension mechanism. There might be others, so the result should be treated as incomplete.
      *
-     * @return a list of descriptors
+     * @return an unmodifiable list of descriptors, sorted by display name in the locale of the current request
      */
     public static List<Descriptor> allDescriptors() {
-        return ExtensionList.lookup(Descriptor.class).stream()
-                .filter(d -> d.isSubTypeOf(EnvVarsFilterableBuilder.class))
-                .collect(Collectors.toList());
+        return registry().sorted().descriptors;
+    }
+
+    /**
+     * Return the descriptor for a class implementing {@link EnvVarsFilterableBuilder} by the name of the descriptor
+     * class.
+     *
+     * @return the descriptor, or {@code null} if there is no such descriptor among {@link #allDescriptors()}.
+     */
+    public static @CheckForNull Descriptor getDescriptor(String descriptorClassName) {
+        return registry().byClassName.get(descriptorClassName);
+    }
+
+    /**
+     * Return the ordinals of the descriptors currently returned by {@link #allDescriptors()}. Ordinals follow the
+     * names of the descriptor classes, so they do not depend on the locale of the request that assigned them.
+     */
+    public static Ordinals ordinals() {
+        return registry().ordinals;
+    }
+
+    private static Registry registry() {
+        ExtensionList<Descriptor> extensions = ExtensionList.lookup(Descriptor.class);
+        Registry r = registry;
+        if (r == null || !r.isCurrent(extensions)) {
+            synchronized (BuilderUtil.class) {
+                r = registry;
+                if (r == null || !r.isCurrent(extensions)) {
+                    if (listenedTo != extensions) {
+                        // a new Jenkins instance, e.g. in tests
+                        extensions.addListener(new Invalidator());
+                        listenedTo = extensions;
+                    }
+                    // read before the extensions, so that a concurrent change makes this registry outdated
+                    r = new Registry(extensions, GENERATION.get());
+                    registry = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    private static final class Registry {
+        private final ExtensionList<Descriptor> source;
+        private final int generation;
+        private final Map<String, Descriptor> byClassName;
+        private final Ordinals ordinals;
+        private final Map<Locale, Sorted> byLocale = new ConcurrentHashMap<>();
+
+        Registry(ExtensionList<Descriptor> source, int generation) {
+            this.source = source;
+            this.generation = generation;
+            List<Descriptor> list = new ArrayList<>();
+            for (Descriptor d : source) {
+                if (d.isSubTypeOf(EnvVarsFilterableBuilder.class)) {
+                    list.add(d);
+                }
+            }
+            list.sort(Comparator.comparing(d -> d.getClass().getName()));
+            Map<String, Descriptor> index = new HashMap<>();
+            for (Descriptor d : list) {
+                index.put(d.getClass().getName(), d);
+            }
+            this.byClassName = Collections.unmodifiableMap(index);
+            this.ordinals = new Ordinals(Collections.unmodifiableList(list));
+        }
+
+        boolean isCurrent(ExtensionList<Descriptor> extensions) {
+            return source == extensions && generation == GENERATION.get();
+        }
+
+        Sorted sorted() {
+            return byLocale.computeIfAbsent(LocaleProvider.getLocale(), locale -> new Sorted(ordinals.descriptors));
+        }
+    }
+
+    /**
+     * The descriptors sorted by their display names, in the locale of the request that sorted them.
+     */
+    private static final class Sorted {
+        private final List<Descriptor> descriptors;
+        private final List<Class<EnvVarsFilterableBuilder>> builders;
+
+        @SuppressWarnings("unchecked")
+        Sorted(List<Descriptor> descriptors) {
+            List<Descriptor> list = new ArrayList<>(descriptors);
+            list.sort(Comparator.comparing(Descriptor::getDisplayName));
+            List<Class<EnvVarsFilterableBuilder>> classes = new ArrayList<>(list.size());
+            for (Descriptor d : list) {
+                classes.add((Class<EnvVarsFilterableBuilder>) d.clazz);
+            }
+            this.descriptors = Collections.unmodifiableList(list);
+            this.builders = Collections.unmodifiableList(classes);
+        }
+    }
+
+    /**
+     * Assigns each descriptor of a snapshot of {@link #allDescriptors()} a dense ordinal, its index when sorted by
+     * descriptor class name. Ordinals are stable for a given snapshot, a new snapshot is taken when extensions change.
+     */
+    public static final class Ordinals {
+        private final List<Descriptor> descriptors;
+        private final Map<Descriptor, Integer> index = new IdentityHashMap<>();
+
+        Ordinals(List<Descriptor> descriptors) {
+            this.descriptors = descriptors;
+            for (int i = 0; i < descriptors.size(); i++) {
+                index.put(descriptors.get(i), i);
+            }
+        }
+
+        public int size() {
+            return descriptors.size();
+        }
+
+        public Descriptor get(int ordinal) {
+            return descriptors.get(ordinal);
+        }
+
+        /**
+         * @return the ordinal of the descriptor, or {@code -1} if it is not part of this snapshot.
+         */
+        public int of(Descriptor<?> descriptor) {
+            Integer ordinal = index.get(descriptor);
+            return ordinal == null ? -1 : ordinal;
+        }
+    }
+
+    /**
+     * Discards the cached descriptors when extensions are added, e.g. by dynamically loading a plugin.
+     */
+    private static final class Invalidator extends ExtensionListListener {
+        @Override
+        public void onChange() {
+            GENERATION.incrementAndGet();
+        }
     }
 }
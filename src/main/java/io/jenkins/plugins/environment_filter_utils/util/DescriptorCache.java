@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import hudson.ExtensionList;
+import hudson.ExtensionListListener;
+import hudson.model.Describable;
+import hudson.model.Descriptor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Caches the descriptors of matcher classes. {@link Jenkins#getDescriptorOrDie(Class)} looks through all descriptors
+ * on every call.
+ */
+@Restricted(NoExternalUse.class)
+public final class DescriptorCache {
+    private static volatile Cache cache;
+
+    /**
+     * Incremented when extensions change, see {@link BuilderUtil}.
+     */
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+
+    /**
+     * The descriptor extension list we listen to for changes.
+     */
+    private static ExtensionList<Descriptor> listenedTo;
+
+    private DescriptorCache() {}
+
+    /**
+     * Like {@link Jenkins#getDescriptorOrDie(Class)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static @Nonnull <T extends Describable<T>> Descriptor<T> get(@Nonnull Class<? extends T> clazz) {
+        ExtensionList<Descriptor> extensions = ExtensionList.lookup(Descriptor.class);
+        Cache c = cache;
+        if (c == null || !c.isCurrent(extensions)) {
+            synchronized (DescriptorCache.class) {
+                c = cache;
+                if (c == null || !c.isCurrent(extensions)) {
+                    if (listenedTo != extensions) {
+                        // a new Jenkins instance, e.g. in tests
+                        extensions.addListener(new Invalidator());
+                        listenedTo = extensions;
+                    }
+                    c = new Cache(extensions, GENERATION.get());
+                    cache = c;
+                }
+            }
+        }
+        Descriptor<?> descriptor = c.descriptors.get(clazz);
+        if (descriptor == null) {
+            descriptor = Jenkins.get().getDescriptorOrDie(clazz);
+            c.descriptors.put(clazz, descriptor);
+        }
+        return (Descriptor<T>) descriptor;
+    }
+
+    private static final class Cache {
+        private final ExtensionList<Descriptor> source;
+        private final int generation;
+        private final Map<Class<?>, Descriptor<?>> descriptors = new ConcurrentHashMap<>();
+
+        Cache(ExtensionList<Descriptor> source, int generation) {
+            this.source = source;
+            this.generation = generation;
+        }
+
+        boolean isCurrent(ExtensionList<Descriptor> extensions) {
+            return source == extensions && generation == GENERATION.get();
+        }
+    }
+
+    /**
+     * Discards the cached descriptors when extensions change, e.g. by dynamically loading a plugin.
+     */
+    private static final class Invalidator extends ExtensionListListener {
+        @Override
+        public void onChange() {
+            GENERATION.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import hudson.Util;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Canonicalizes equal matcher configurations, so that the many identical matchers of large rule sets share a single
+ * instance, and state derived from equal configurations is computed once.
+ * <p>
+ * Instances are referenced weakly and disappear once no matcher uses them anymore. Interned objects must not be
+ * modified afterwards.
+ */
+@Restricted(NoExternalUse.class)
+public final class Interner {
+    private static final Map<Object, WeakReference<Object>> INSTANCES = new WeakHashMap<>();
+
+    private Interner() {}
+
+    /**
+     * Return the canonical instance equal to the specified object.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T intern(@CheckForNull T object) {
+        if (object == null) {
+            return null;
+        }
+        synchronized (INSTANCES) {
+            WeakReference<Object> reference = INSTANCES.get(object);
+            Object existing = reference == null ? null : reference.get();
+            // equal objects of different classes, like lists, are not interchangeable
+            if (existing != null && existing.getClass() == object.getClass()) {
+                return (T) existing;
+            }
+            INSTANCES.put(object, new WeakReference<>(object));
+            return object;
+        }
+    }
+
+    /**
+     * Copy a list of strings, using the canonical instance of each string.
+     */
+    public static List<String> internAll(@CheckForNull List<String> strings) {
+        if (strings == null) {
+            return null;
+        }
+        List<String> result = new ArrayList<>(strings.size());
+        for (String string : strings) {
+            result.add(Util.intern(string));
+        }
+        return result;
+    }
+
+    /**
+     * State derived from a configuration value, shared by all matchers with an equal configuration.
+     * <p>
+     * The derived value must not reference the key, or it would never be discarded.
+     */
+    public static final class Derived<K, V> {
+        private final Map<K, V> values = new WeakHashMap<>();
+
+        public V get(K key, Function<? super K, ? extends V> compute) {
+            synchronized (values) {
+                V value = values.get(key);
+                if (value != null) {
+                    return value;
+                }
+            }
+            // computed outside the lock, a concurrent miss only costs a duplicate computation
+            V computed = compute.apply(key);
+            synchronized (values) {
+                V existing = values.putIfAbsent(key, computed);
+                return existing == null ? computed : existing;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Visits all items of an item group and the groups inside it in parallel, splitting the folder tree across a bounded
+ * {@link ForkJoinPool} so that scans of large instances scale with the available cores.
+ * <p>
+ * Unlike {@link jenkins.model.Jenkins#allItems()}, items are visited in no particular order, and by several threads
+ * at once.
+ */
+@Restricted(NoExternalUse.class)
+public final class ItemTraversal {
+    private static final int PARALLELISM = SystemProperties.getInteger(
+            ItemTraversal.class.getName() + ".parallelism",
+            Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Items of a group are split into tasks of at most this many items, so that large flat folders are visited in
+     * parallel too.
+     */
+    private static final int SPLIT_SIZE = 256;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+            PARALLELISM,
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("ItemTraversal worker " + THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            null,
+            false);
+
+    private ItemTraversal() {}
+
+    /**
+     * Visit the items inside the specified group and all groups inside it that the specified user can read. Groups
+     * the user cannot read are not descended into.
+     *
+     * @param visitor called concurrently for each item, returns {@code false} to stop the traversal. Items visited
+     *     concurrently may still be passed to it after that.
+     * @return {@code true} if all items were visited, {@code false} if the visitor stopped the traversal
+     */
+    public static boolean forEach(
+            @Nonnull ItemGroup<?> group,
+            @Nonnull Authentication authentication,
+            @Nonnull Predicate<? super Item> visitor) {
+        Traversal traversal = new Traversal(authentication, visitor);
+        Task task;
+        try (ACLContext ignored = ACL.as2(authentication)) {
+            task = new Task(traversal, new ArrayList<>(group.getItems()), 0);
+        }
+        POOL.invoke(task);
+        return !traversal.stopped;
+    }
+
+    private static final class Traversal {
+        private final Authentication authentication;
+        private final Predicate<? super Item> visitor;
+        private volatile boolean stopped;
+
+        Traversal(Authentication authentication, Predicate<? super Item> visitor) {
+            this.authentication = authentication;
+            this.visitor = visitor;
+        }
+    }
+
+    private static final class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Traversal traversal;
+        private final transient List<? extends Item> items;
+        private final int from;
+        private final int to;
+
+        Task(Traversal traversal, List<? extends Item> items, int from) {
+            this(traversal, items, from, items.size());
+        }
+
+        private Task(Traversal traversal, List<? extends Item> items, int from, int to) {
+            this.traversal = traversal;
+            this.items = items;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Task(traversal, items, from, middle), new Task(traversal, items, middle, to));
+                return;
+            }
+            List<Task> children = new ArrayList<>();
+            // item groups usually only return the items the current user can read
+            try (ACLContext ignored = ACL.as2(traversal.authentication)) {
+                for (int i = from; i < to && !traversal.stopped; i++) {
+                    Item item = items.get(i);
+                    if (!item.hasPermission2(traversal.authentication, Item.READ)) {
+                        continue;
+                    }
+                    if (!traversal.visitor.test(item)) {
+                        traversal.stopped = true;
+                        break;
+                    }
+                    if (item instanceof ItemGroup) {
+                        Collection<? extends Item> nested = ((ItemGroup<?>) item).getItems();
+                        if (!nested.isEmpty()) {
+                            Task child = new Task(traversal, new ArrayList<>(nested), 0);
+                            child.fork();
+                            children.add(child);
+                        }
+                    }
+                }
+            }
+            for (Task child : children) {
+                child.join();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Access to the full name of an item without building the string, as {@link Item#getFullName()} does on every call.
+ * <p>
+ * The full name is the names of the item and its parents joined by {@code /}; this class uses the name strings the
+ * items already hold.
+ */
+@Restricted(NoExternalUse.class)
+public final class JobFullName implements CharSequence {
+    private static final ThreadLocal<JobFullName> VIEW = ThreadLocal.withInitial(JobFullName::new);
+
+    /**
+     * Segments from the root, with the offset at which each starts.
+     */
+    private String[] segments = new String[8];
+
+    private int[] starts = new int[8];
+
+    private int count;
+
+    private int length;
+
+    /**
+     * Index of the segment containing the last character read, as most reads are sequential.
+     */
+    private int current;
+
+    private JobFullName() {}
+
+    /**
+     * Whether the specified string is the full name of the item, compared one name segment at a time.
+     */
+    public static boolean matches(@Nonnull Item item, @Nonnull String fullName) {
+        int end = fullName.length();
+        Item current = item;
+        while (true) {
+            String name = current.getName();
+            int start = end - name.length();
+            if (start < 0 || !fullName.startsWith(name, start)) {
+                return false;
+            }
+            ItemGroup<?> parent = current.getParent();
+            if (!(parent instanceof Item)) {
+                String parentName = parent.getFullName();
+                if (parentName.isEmpty()) {
+                    return start == 0;
+                }
+                return start == parentName.length() + 1
+                        && fullName.charAt(start - 1) == '/'
+                        && fullName.startsWith(parentName);
+            }
+            if (start == 0 || fullName.charAt(start - 1) != '/') {
+                return false;
+            }
+            end = start - 1;
+            current = (Item) parent;
+        }
+    }
+
+    /**
+     * A view of the full name of the item, for reading with methods accepting a {@link CharSequence}.
+     * <p>
+     * The view is reused: it is only valid on the calling thread until the next call to this method on that thread,
+     * and must not be retained. Use {@link #toString()} to keep the name.
+     */
+    public static @Nonnull CharSequence of(@Nonnull Item item) {
+        JobFullName view = VIEW.get();
+        view.reset(item);
+        return view;
+    }
+
+    private void reset(Item item) {
+        count = 0;
+        current = 0;
+        Item i = item;
+        String top;
+        while (true) {
+            add(i.getName());
+            ItemGroup<?> parent = i.getParent();
+            if (!(parent instanceof Item)) {
+                top = parent.getFullName();
+                break;
+            }
+            i = (Item) parent;
+        }
+        if (!top.isEmpty()) {
+            add(top);
+        }
+        // collected from the item up, reverse to start from the root
+        for (int a = 0, b = count - 1; a < b; a++, b--) {
+            String s = segments[a];
+            segments[a] = segments[b];
+            segments[b] = s;
+        }
+        int offset = 0;
+        for (int s = 0; s < count; s++) {
+            starts[s] = offset;
+            offset += segments[s].length() + 1;
+        }
+        length = offset - 1;
+    }
+
+    private void add(String segment) {
+        if (count == segments.length) {
+            segments = Arrays.copyOf(segments, count * 2);
+            starts = Arrays.copyOf(starts, count * 2);
+        }
+        segments[count++] = segment;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int s = current;
+        if (index < starts[s] || (s + 1 < count && index >= starts[s + 1])) {
+            s = Arrays.binarySearch(starts, 0, count, index);
+            if (s < 0) {
+                s = -s - 2;
+            }
+            current = s;
+        }
+        int offset = index - starts[s];
+        String segment = segments[s];
+        return offset < segment.length() ? segment.charAt(offset) : '/';
+    }
+
+    @Override
+    public @Nonnull CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public @Nonnull String toString() {
+        StringBuilder sb = new StringBuilder(length);
+        for (int s = 0; s < count; s++) {
+            if (s > 0) {
+                sb.append('/');
+            }
+            sb.append(segments[s]);
+        }
+        return sb.toString();
+    }
+}
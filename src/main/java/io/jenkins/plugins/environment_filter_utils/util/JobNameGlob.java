@@ -0,0 +1,242 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * A compiled Ant-style glob over the name segments of a full name, as an alternative to regular expressions for
+ * the common patterns.
+ * <p>
+ * Within a segment, {@code *} matches any number of characters and {@code ?} matches a single character, but neither
+ * matches {@code /}. A segment consisting of {@code **} matches any number of segments, including none. All other
+ * characters match themselves.
+ * <p>
+ * Matching does not backtrack: the parts between wildcards are placed at the leftmost position they fit, which is
+ * sufficient as the wildcards between them can match anything. Matching does not allocate.
+ */
+@Restricted(NoExternalUse.class)
+public final class JobNameGlob {
+    /**
+     * The segment patterns, {@code null} for {@code **}.
+     */
+    private final Segment[] segments;
+
+    /**
+     * Indices into {@link #segments} of the {@code **} segments.
+     */
+    private final int[] globstars;
+
+    private JobNameGlob(Segment[] segments, int[] globstars) {
+        this.segments = segments;
+        this.globstars = globstars;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the glob is empty or contains an empty segment
+     */
+    public static @Nonnull JobNameGlob compile(@Nonnull String glob) {
+        if (glob.isEmpty()) {
+            throw new IllegalArgumentException("The glob is empty");
+        }
+        List<Segment> segments = new ArrayList<>();
+        List<Integer> globstars = new ArrayList<>();
+        int start = 0;
+        while (start <= glob.length()) {
+            int end = glob.indexOf('/', start);
+            if (end < 0) {
+                end = glob.length();
+            }
+            if (end == start) {
+                throw new IllegalArgumentException("Empty name segment at index " + start + ": " + glob);
+            }
+            if (end - start == 2 && glob.startsWith("**", start)) {
+                // consecutive ** are equivalent to a single one
+                if (globstars.isEmpty() || globstars.get(globstars.size() - 1) != segments.size() - 1) {
+                    globstars.add(segments.size());
+                    segments.add(null);
+                }
+            } else {
+                segments.add(new Segment(glob.substring(start, end)));
+            }
+            start = end + 1;
+        }
+        return new JobNameGlob(
+                segments.toArray(new Segment[0]),
+                globstars.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Whether the glob matches the whole full name.
+     */
+    public boolean matches(@Nonnull CharSequence fullName) {
+        int length = fullName.length();
+        // offsets are where a segment starts, length + 1 is past the last one
+        int end = length + 1;
+        if (globstars.length == 0) {
+            return matchGroup(fullName, 0, 0, segments.length) == end;
+        }
+        int position = matchGroup(fullName, 0, 0, globstars[0]);
+        if (position < 0) {
+            return false;
+        }
+        // the segments after the last ** match the end of the name
+        int lastFrom = globstars[globstars.length - 1] + 1;
+        int lastStart = end;
+        for (int i = segments.length - lastFrom; i > 0; i--) {
+            if (lastStart == 0) {
+                return false;
+            }
+            lastStart = lastIndexOfSlash(fullName, lastStart - 2) + 1;
+        }
+        if (lastStart < position || matchGroup(fullName, lastStart, lastFrom, segments.length) != end) {
+            return false;
+        }
+        // the segments between ** match at the leftmost position they fit
+        for (int g = 1; g < globstars.length; g++) {
+            int from = globstars[g - 1] + 1;
+            int to = globstars[g];
+            int found = -1;
+            while (position < lastStart) {
+                found = matchGroup(fullName, position, from, to);
+                if (found >= 0 && found <= lastStart) {
+                    break;
+                }
+                found = -1;
+                position = indexOfSlash(fullName, position) + 1;
+            }
+            if (found < 0) {
+                return false;
+            }
+            position = found;
+        }
+        return true;
+    }
+
+    /**
+     * Match consecutive segment patterns against consecutive segments of the name.
+     *
+     * @return the offset after the matched segments, or {@code -1} if they do not match
+     */
+    private int matchGroup(CharSequence name, int start, int from, int to) {
+        int position = start;
+        for (int s = from; s < to; s++) {
+            if (position > name.length()) {
+                return -1;
+            }
+            int end = indexOfSlash(name, position);
+            if (!segments[s].matches(name, position, end)) {
+                return -1;
+            }
+            position = end + 1;
+        }
+        return position;
+    }
+
+    private static int indexOfSlash(CharSequence name, int from) {
+        int length = name.length();
+        for (int i = from; i < length; i++) {
+            if (name.charAt(i) == '/') {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static int lastIndexOfSlash(CharSequence name, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (name.charAt(i) == '/') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The pattern for a single name segment, split into the parts between {@code *}.
+     */
+    private static final class Segment {
+        // char arrays rather than substrings, which could be the glob itself
+        private final char[][] parts;
+
+        Segment(String pattern) {
+            List<char[]> list = new ArrayList<>();
+            int start = 0;
+            while (true) {
+                int star = pattern.indexOf('*', start);
+                if (star < 0) {
+                    list.add(pattern.substring(start).toCharArray());
+                    break;
+                }
+                list.add(pattern.substring(start, star).toCharArray());
+                start = star + 1;
+            }
+            this.parts = list.toArray(new char[0][]);
+        }
+
+        boolean matches(CharSequence name, int start, int end) {
+            char[] first = parts[0];
+            if (parts.length == 1) {
+                return end - start == first.length && matchesAt(first, name, start);
+            }
+            char[] last = parts[parts.length - 1];
+            if (end - start < first.length + last.length
+                    || !matchesAt(first, name, start)
+                    || !matchesAt(last, name, end - last.length)) {
+                return false;
+            }
+            int from = start + first.length;
+            int to = end - last.length;
+            for (int p = 1; p < parts.length - 1; p++) {
+                char[] part = parts[p];
+                int found = -1;
+                for (int i = from; i + part.length <= to; i++) {
+                    if (matchesAt(part, name, i)) {
+                        found = i;
+                        break;
+                    }
+                }
+                if (found < 0) {
+                    return false;
+                }
+                from = found + part.length;
+            }
+            return true;
+        }
+
+        private static boolean matchesAt(char[] part, CharSequence name, int offset) {
+            for (int i = 0; i < part.length; i++) {
+                char c = part[i];
+                if (c != '?' && c != name.charAt(offset + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.listeners.ItemListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.EditDistance;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.springframework.security.core.Authentication;
+
+/**
+ * In-memory index of the full names of all items, kept current by listening to item events. This allows looking at
+ * item names without traversing (and possibly loading) the item tree.
+ * <p>
+ * The index does not consider permissions, callers need to check those for any item they present to users.
+ */
+@Restricted(NoExternalUse.class)
+public final class JobNameIndex {
+    private static final NavigableSet<String> NAMES = new ConcurrentSkipListSet<>();
+
+    /**
+     * How many names are looked at by lookups that are not limited otherwise, e.g. because most names in a range are
+     * not readable.
+     */
+    private static final int MAX_SCANNED = 10_000;
+
+    /**
+     * How many items are resolved per name returned by {@link #readableWithPrefix(String, int)} at most. Resolving an
+     * item to check its permissions may load it, so this is limited much more than the names looked at.
+     */
+    private static final int MAX_RESOLVED_PER_RESULT = 4;
+
+    private static volatile boolean ready;
+
+    private JobNameIndex() {}
+
+    /**
+     * Whether the index has been populated. Until all items are loaded, callers need to look at the items instead.
+     */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The full names of all items, sorted.
+     */
+    public static NavigableSet<String> names() {
+        return Collections.unmodifiableNavigableSet(NAMES);
+    }
+
+    /**
+     * The full names of items starting with the specified prefix that the current user can read, sorted. This is a
+     * range lookup in the index, so it does not depend on the number of items, but on the number of names returned.
+     * <p>
+     * Items inside a folder the current user cannot read are skipped without being resolved. When many of the names
+     * are not readable otherwise, fewer names than available may be returned.
+     *
+     * @param limit the maximum number of names to return
+     */
+    public static List<String> readableWithPrefix(@Nonnull String prefix, int limit) {
+        Jenkins jenkins = Jenkins.get();
+        Authentication authentication = Jenkins.getAuthentication2();
+        List<String> result = new ArrayList<>();
+        Set<String> unreadable = new HashSet<>();
+        long maxResolved = (long) limit * MAX_RESOLVED_PER_RESULT;
+        int resolved = 0;
+        int scanned = 0;
+        String current = NAMES.ceiling(prefix);
+        while (current != null && current.startsWith(prefix) && result.size() < limit && resolved < maxResolved
+                && scanned++ < MAX_SCANNED) {
+            String folder = unreadableAncestor(current, unreadable);
+            if (folder != null) {
+                // '0' follows '/', so this skips everything inside the unreadable folder
+                current = NAMES.ceiling(folder + '0');
+                continue;
+            }
+            resolved++;
+            if (isReadable(jenkins, current, authentication)) {
+                result.add(current);
+            } else {
+                unreadable.add(current);
+            }
+            current = NAMES.higher(current);
+        }
+        return result;
+    }
+
+    /**
+     * The outermost of the folders containing the specified item that are known to be unreadable.
+     */
+    private static @CheckForNull String unreadableAncestor(String fullName, Set<String> unreadable) {
+        if (unreadable.isEmpty()) {
+            return null;
+        }
+        int slash = fullName.indexOf('/');
+        while (slash >= 0) {
+            String folder = fullName.substring(0, slash);
+            if (unreadable.contains(folder)) {
+                return folder;
+            }
+            slash = fullName.indexOf('/', slash + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Whether an item with the specified full name exists. This does not resolve the item.
+     */
+    public static boolean contains(@Nonnull String fullName) {
+        return NAMES.contains(fullName);
+    }
+
+    /**
+     * Find the name most similar to the specified full name among the items in the same folder, to suggest when no
+     * item with that name exists.
+     *
+     * @return the full name of a similar item the current user can read, or {@code null} if there is none
+     */
+    public static @CheckForNull String findNearestReadable(@Nonnull String fullName) {
+        int slash = fullName.lastIndexOf('/');
+        String folder = fullName.substring(0, slash + 1);
+        String name = fullName.substring(slash + 1);
+        if (name.isEmpty()) {
+            return null;
+        }
+        List<String> siblings = children(folder);
+        String nearest = EditDistance.findNearest(name, siblings);
+        // anything further away is unlikely to be a typo
+        if (nearest == null || EditDistance.editDistance(name, nearest) > Math.max(2, name.length() / 3)) {
+            return null;
+        }
+        String nearestFullName = folder + nearest;
+        return isReadable(Jenkins.get(), nearestFullName, Jenkins.getAuthentication2()) ? nearestFullName : null;
+    }
+
+    /**
+     * The names of the items directly inside a folder, skipping over the items nested deeper.
+     *
+     * @param folder the full name of the folder followed by {@code /}, or the empty string for top-level items
+     */
+    private static List<String> children(String folder) {
+        List<String> children = new ArrayList<>();
+        String current = NAMES.ceiling(folder);
+        while (current != null && current.startsWith(folder) && children.size() < MAX_SCANNED) {
+            int slash = current.indexOf('/', folder.length());
+            if (slash < 0) {
+                children.add(current.substring(folder.length()));
+                current = NAMES.higher(current);
+            } else {
+                // '0' follows '/', so this skips everything inside that child
+                current = NAMES.ceiling(current.substring(0, slash) + '0');
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Whether the current user can read the item with the specified full name and every folder containing it, like
+     * {@link Jenkins#getItemByFullName(String)} requires. Unlike that method, this does not fail for items the user
+     * can discover but not read.
+     */
+    public static boolean isReadable(@Nonnull String fullName) {
+        return isReadable(Jenkins.get(), fullName, Jenkins.getAuthentication2());
+    }
+
+    /**
+     * The item with the specified full name, if the current user can read it, see {@link #isReadable(String)}.
+     */
+    public static @CheckForNull Item getReadable(@Nonnull String fullName) {
+        return getReadable(Jenkins.get(), fullName, Jenkins.getAuthentication2());
+    }
+
+    private static boolean isReadable(Jenkins jenkins, String fullName, Authentication authentication) {
+        return getReadable(jenkins, fullName, authentication) != null;
+    }
+
+    private static @CheckForNull Item getReadable(Jenkins jenkins, String fullName, Authentication authentication) {
+        Item item;
+        // Jenkins#getItemByFullName would fail for items the user can discover but not read
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            item = jenkins.getItemByFullName(fullName);
+        }
+        if (item == null) {
+            return null;
+        }
+        for (Object i = item; i instanceof Item; i = ((Item) i).getParent()) {
+            if (!((Item) i).hasPermission2(authentication, Item.READ)) {
+                return null;
+            }
+        }
+        return item;
+    }
+
+    private static void add(Item item) {
+        NAMES.add(item.getFullName());
+    }
+
+    private static void remove(String fullName) {
+        NAMES.remove(fullName);
+        // '0' follows '/', so this is everything inside the item if it is a folder
+        NAMES.subSet(fullName + '/', fullName + '0').clear();
+    }
+
+    @Extension
+    public static final class Listener extends ItemListener {
+        @Override
+        public void onLoaded() {
+            ready = false;
+            NAMES.clear();
+            for (Item item : Items.allItems2(ACL.SYSTEM2, Jenkins.get(), Item.class)) {
+                add(item);
+            }
+            ready = true;
+        }
+
+        @Override
+        public void onCreated(Item item) {
+            add(item);
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            add(item);
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            remove(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // also called for every item inside a moved folder
+            NAMES.remove(oldFullName);
+            NAMES.add(newFullName);
+        }
+    }
+}
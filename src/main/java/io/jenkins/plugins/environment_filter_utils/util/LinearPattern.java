@@ -0,0 +1,762 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * A regular expression evaluated in time linear in the length of the input, regardless of the expression.
+ * <p>
+ * The expression is compiled into a nondeterministic automaton that is simulated one input character at a time,
+ * tracking all active states at once instead of backtracking. This supports the common subset of the
+ * {@link java.util.regex.Pattern} syntax with the same meaning: literals and escapes, {@code .}, character classes
+ * (including {@code \d \w \s} and their negations), groups (capturing, non-capturing and named, all treated alike),
+ * alternation, greedy and reluctant quantifiers including bounded repetition, {@code \Q...\E} quoting, and the
+ * anchors {@code ^} and {@code $}. Constructs that cannot be evaluated this way, like back references, lookaround,
+ * possessive quantifiers and inline flags, are rejected.
+ */
+@Restricted(NoExternalUse.class)
+public final class LinearPattern {
+    /**
+     * Upper limit for the number of automaton states, reached by large bounded repetitions.
+     */
+    private static final int MAX_STATES = 10_000;
+
+    private static final int CHAR = 0;
+    private static final int SPLIT = 1;
+    private static final int BEGIN = 2;
+    private static final int END = 3;
+    private static final int MATCH = 4;
+
+    private final String pattern;
+    private final int start;
+    private final int[] op;
+    private final int[] out;
+    private final int[] alt;
+    private final CharClass[] classes;
+
+    private LinearPattern(String pattern, Node root) {
+        this.pattern = pattern;
+        Program program = new Program();
+        int match = program.add(MATCH, null, -1, -1);
+        this.start = program.compile(root, match);
+        this.op = program.op.stream().mapToInt(Integer::intValue).toArray();
+        this.out = program.out.stream().mapToInt(Integer::intValue).toArray();
+        this.alt = program.alt.stream().mapToInt(Integer::intValue).toArray();
+        this.classes = program.classes.toArray(new CharClass[0]);
+    }
+
+    /**
+     * Compile the expression.
+     *
+     * @throws PatternSyntaxException if the expression is invalid, or uses a construct that is not supported
+     */
+    public static @Nonnull LinearPattern compile(@Nonnull String regex) {
+        return new LinearPattern(regex, new Parser(regex).parse());
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    /**
+     * Whether the entire input matches the expression, like {@link java.util.regex.Matcher#matches()}.
+     */
+    public boolean matches(@Nonnull CharSequence input) {
+        int n = op.length;
+        int[] current = new int[n];
+        int[] next = new int[n];
+        // marks[state] == generation if state was already added for the current position
+        int[] marks = new int[n];
+        int[] stack = new int[n];
+        int generation = 1;
+        int length = input.length();
+
+        int count = closure(start, 0, length, current, 0, marks, generation, stack);
+        int position = 0;
+        while (position < length && count > 0) {
+            int c = Character.codePointAt(input, position);
+            int nextPosition = position + Character.charCount(c);
+            generation++;
+            int nextCount = 0;
+            for (int i = 0; i < count; i++) {
+                int state = current[i];
+                if (op[state] == CHAR && classes[state].contains(c)) {
+                    nextCount = closure(out[state], nextPosition, length, next, nextCount, marks, generation, stack);
+                }
+            }
+            int[] swap = current;
+            current = next;
+            next = swap;
+            count = nextCount;
+            position = nextPosition;
+        }
+        if (position < length) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (op[current[i]] == MATCH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add the state and all states reachable from it without consuming input to the list.
+     */
+    private int closure(
+            int state, int position, int length, int[] list, int count, int[] marks, int generation, int[] stack) {
+        int top = 0;
+        stack[top++] = state;
+        while (top > 0) {
+            int s = stack[--top];
+            if (marks[s] == generation) {
+                continue;
+            }
+            marks[s] = generation;
+            switch (op[s]) {
+                case SPLIT:
+                    // push the alternative first, so the preferred branch is processed first
+                    stack[top++] = alt[s];
+                    stack[top++] = out[s];
+                    break;
+                case BEGIN:
+                    if (position == 0) {
+                        stack[top++] = out[s];
+                    }
+                    break;
+                case END:
+                    if (position == length) {
+                        stack[top++] = out[s];
+                    }
+                    break;
+                default:
+                    list[count++] = s;
+            }
+        }
+        return count;
+    }
+
+    private static final class Program {
+        private final List<Integer> op = new ArrayList<>();
+        private final List<Integer> out = new ArrayList<>();
+        private final List<Integer> alt = new ArrayList<>();
+        private final List<CharClass> classes = new ArrayList<>();
+
+        int add(int operation, CharClass charClass, int next, int alternative) {
+            if (op.size() >= MAX_STATES) {
+                throw new PatternSyntaxException("Expression is too large", "", -1);
+            }
+            op.add(operation);
+            classes.add(charClass);
+            out.add(next);
+            alt.add(alternative);
+            return op.size() - 1;
+        }
+
+        /**
+         * Compile the node so that it continues with {@code next} once it matched.
+         *
+         * @return the start state of the node
+         */
+        int compile(Node node, int next) {
+            switch (node.type) {
+                case CHAR:
+                    return add(CHAR, node.charClass, next, -1);
+                case BEGIN:
+                case END:
+                    return add(node.type, null, next, -1);
+                case Node.CONCAT:
+                    for (int i = node.children.size() - 1; i >= 0; i--) {
+                        next = compile(node.children.get(i), next);
+                    }
+                    return next;
+                case Node.ALTERNATION:
+                    int s = compile(node.children.get(node.children.size() - 1), next);
+                    for (int i = node.children.size() - 2; i >= 0; i--) {
+                        s = add(SPLIT, null, compile(node.children.get(i), next), s);
+                    }
+                    return s;
+                case Node.REPEAT:
+                    Node child = node.children.get(0);
+                    int tail;
+                    if (node.max < 0) {
+                        int loop = add(SPLIT, null, -1, next);
+                        out.set(loop, compile(child, loop));
+                        tail = loop;
+                    } else {
+                        tail = next;
+                        for (int i = node.min; i < node.max; i++) {
+                            tail = add(SPLIT, null, compile(child, tail), next);
+                        }
+                    }
+                    for (int i = 0; i < node.min; i++) {
+                        tail = compile(child, tail);
+                    }
+                    return tail;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+    }
+
+    /**
+     * Parsed form of the expression, also used by {@link RegexAnalyzer}.
+     */
+    static final class Node {
+        static final int CONCAT = 10;
+        static final int ALTERNATION = 11;
+        static final int REPEAT = 12;
+
+        final int type;
+        final CharClass charClass;
+        final List<Node> children;
+        final int min;
+        final int max;
+
+        private Node(int type, CharClass charClass, List<Node> children, int min, int max) {
+            this.type = type;
+            this.charClass = charClass;
+            this.children = children;
+            this.min = min;
+            this.max = max;
+        }
+
+        static Node character(CharClass charClass) {
+            return new Node(CHAR, charClass, List.of(), 1, 1);
+        }
+
+        static Node anchor(int type) {
+            return new Node(type, null, List.of(), 0, 0);
+        }
+
+        static Node concat(List<Node> children) {
+            return children.size() == 1 ? children.get(0) : new Node(CONCAT, null, children, 0, 0);
+        }
+
+        static Node alternation(List<Node> children) {
+            return children.size() == 1 ? children.get(0) : new Node(ALTERNATION, null, children, 0, 0);
+        }
+
+        static Node repeat(Node child, int min, int max) {
+            return new Node(REPEAT, null, List.of(child), min, max);
+        }
+
+        boolean isCharacter() {
+            return type == CHAR;
+        }
+
+        boolean isRepeat() {
+            return type == REPEAT;
+        }
+
+        boolean isAlternation() {
+            return type == ALTERNATION;
+        }
+
+        boolean isConcat() {
+            return type == CONCAT;
+        }
+
+        /**
+         * Whether the node can match inputs of different lengths.
+         */
+        boolean isVariableLength() {
+            switch (type) {
+                case REPEAT:
+                    return min != max || children.get(0).isVariableLength();
+                case ALTERNATION:
+                    int length = -1;
+                    for (Node child : children) {
+                        int l = child.fixedLength();
+                        if (l < 0 || (length >= 0 && l != length)) {
+                            return true;
+                        }
+                        length = l;
+                    }
+                    return false;
+                default:
+                    for (Node child : children) {
+                        if (child.isVariableLength()) {
+                            return true;
+                        }
+                    }
+                    return false;
+            }
+        }
+
+        private int fixedLength() {
+            if (isVariableLength()) {
+                return -1;
+            }
+            switch (type) {
+                case CHAR:
+                    return 1;
+                case REPEAT:
+                    int child = children.get(0).fixedLength();
+                    return child < 0 ? -1 : child * min;
+                case ALTERNATION:
+                    return children.get(0).fixedLength();
+                case CONCAT:
+                    int sum = 0;
+                    for (Node c : children) {
+                        sum += c.fixedLength();
+                    }
+                    return sum;
+                default:
+                    return 0;
+            }
+        }
+
+        /**
+         * Whether the node can match the empty string.
+         */
+        boolean isNullable() {
+            switch (type) {
+                case CHAR:
+                    return false;
+                case REPEAT:
+                    return min == 0 || children.get(0).isNullable();
+                case ALTERNATION:
+                    for (Node child : children) {
+                        if (child.isNullable()) {
+                            return true;
+                        }
+                    }
+                    return false;
+                case CONCAT:
+                    for (Node child : children) {
+                        if (!child.isNullable()) {
+                            return false;
+                        }
+                    }
+                    return true;
+                default:
+                    return true;
+            }
+        }
+
+        /**
+         * The characters a non-empty match of this node can start with.
+         */
+        CharClass first() {
+            switch (type) {
+                case CHAR:
+                    return charClass;
+                case REPEAT:
+                    return children.get(0).first();
+                case ALTERNATION:
+                    CharClass union = CharClass.NONE;
+                    for (Node child : children) {
+                        union = union.union(child.first());
+                    }
+                    return union;
+                case CONCAT:
+                    CharClass result = CharClass.NONE;
+                    for (Node child : children) {
+                        result = result.union(child.first());
+                        if (!child.isNullable()) {
+                            break;
+                        }
+                    }
+                    return result;
+                default:
+                    return CharClass.NONE;
+            }
+        }
+    }
+
+    /**
+     * A set of code points, as sorted and disjoint inclusive ranges.
+     */
+    static final class CharClass {
+        static final CharClass NONE = new CharClass(new int[0]);
+        static final CharClass ALL = new CharClass(new int[] {0, Character.MAX_CODE_POINT});
+        static final CharClass DIGIT = new CharClass(new int[] {'0', '9'});
+        static final CharClass WORD = new CharClass(new int[] {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'});
+        static final CharClass SPACE = new CharClass(new int[] {'\t', '\r', ' ', ' '});
+        /**
+         * What {@code .} matches, everything but line terminators.
+         */
+        static final CharClass DOT =
+                new CharClass(new int[] {'\n', '\n', '\r', '\r', 0x85, 0x85, 0x2028, 0x2029}).complement();
+
+        private final int[] ranges;
+
+        private CharClass(int[] ranges) {
+            this.ranges = ranges;
+        }
+
+        static CharClass of(int c) {
+            return new CharClass(new int[] {c, c});
+        }
+
+        static CharClass range(int from, int to) {
+            return new CharClass(new int[] {from, to});
+        }
+
+        boolean contains(int c) {
+            // few ranges in practice, so linear search is fastest
+            for (int i = 0; i < ranges.length && ranges[i] <= c; i += 2) {
+                if (c <= ranges[i + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return ranges.length == 0;
+        }
+
+        CharClass union(CharClass other) {
+            if (other.ranges.length == 0) {
+                return this;
+            }
+            int[] all = Arrays.copyOf(ranges, ranges.length + other.ranges.length);
+            System.arraycopy(other.ranges, 0, all, ranges.length, other.ranges.length);
+            // sort ranges by start
+            int n = all.length / 2;
+            long[] packed = new long[n];
+            for (int i = 0; i < n; i++) {
+                packed[i] = ((long) all[2 * i] << 32) | all[2 * i + 1];
+            }
+            Arrays.sort(packed);
+            int[] merged = new int[all.length];
+            int m = 0;
+            for (long p : packed) {
+                int from = (int) (p >>> 32);
+                int to = (int) p;
+                if (m > 0 && from <= merged[m - 1] + 1) {
+                    merged[m - 1] = Math.max(merged[m - 1], to);
+                } else {
+                    merged[m++] = from;
+                    merged[m++] = to;
+                }
+            }
+            return new CharClass(Arrays.copyOf(merged, m));
+        }
+
+        CharClass complement() {
+            int[] result = new int[ranges.length + 2];
+            int m = 0;
+            int next = 0;
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (ranges[i] > next) {
+                    result[m++] = next;
+                    result[m++] = ranges[i] - 1;
+                }
+                next = ranges[i + 1] + 1;
+            }
+            if (next <= Character.MAX_CODE_POINT) {
+                result[m++] = next;
+                result[m++] = Character.MAX_CODE_POINT;
+            }
+            return new CharClass(Arrays.copyOf(result, m));
+        }
+
+        boolean intersects(CharClass other) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                for (int j = 0; j < other.ranges.length; j += 2) {
+                    if (ranges[i] <= other.ranges[j + 1] && other.ranges[j] <= ranges[i + 1]) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Recursive descent parser for the supported syntax.
+     */
+    static final class Parser {
+        private final String regex;
+        private int pos;
+
+        Parser(String regex) {
+            this.regex = regex;
+        }
+
+        Node parse() {
+            Node node = alternation();
+            if (pos < regex.length()) {
+                // only an unbalanced ')' ends an alternation early
+                throw error("Unmatched closing ')'");
+            }
+            return node;
+        }
+
+        private Node alternation() {
+            List<Node> alternatives = new ArrayList<>();
+            alternatives.add(concat());
+            while (peek() == '|') {
+                pos++;
+                alternatives.add(concat());
+            }
+            return Node.alternation(alternatives);
+        }
+
+        private Node concat() {
+            List<Node> items = new ArrayList<>();
+            while (pos < regex.length() && peek() != '|' && peek() != ')') {
+                if (regex.startsWith("\\Q", pos)) {
+                    quoted(items);
+                    continue;
+                }
+                items.add(quantified(atom()));
+            }
+            return Node.concat(items);
+        }
+
+        private void quoted(List<Node> items) {
+            int end = regex.indexOf("\\E", pos + 2);
+            String literal = regex.substring(pos + 2, end < 0 ? regex.length() : end);
+            pos = end < 0 ? regex.length() : end + 2;
+            // a quantifier after \E applies to the last quoted character
+            for (int i = 0; i < literal.length(); ) {
+                int c = literal.codePointAt(i);
+                i += Character.charCount(c);
+                Node node = Node.character(CharClass.of(c));
+                items.add(i < literal.length() ? node : quantified(node));
+            }
+        }
+
+        private Node quantified(Node atom) {
+            while (pos < regex.length()) {
+                int min;
+                int max;
+                char c = peek();
+                if (c == '*') {
+                    min = 0;
+                    max = -1;
+                    pos++;
+                } else if (c == '+') {
+                    min = 1;
+                    max = -1;
+                    pos++;
+                } else if (c == '?') {
+                    min = 0;
+                    max = 1;
+                    pos++;
+                } else if (c == '{') {
+                    int close = regex.indexOf('}', pos);
+                    if (close < 0) {
+                        throw error("Unclosed counted closure");
+                    }
+                    String[] bounds = regex.substring(pos + 1, close).split(",", -1);
+                    try {
+                        min = Integer.parseInt(bounds[0]);
+                        if (bounds.length == 1) {
+                            max = min;
+                        } else if (bounds.length == 2) {
+                            max = bounds[1].isEmpty() ? -1 : Integer.parseInt(bounds[1]);
+                        } else {
+                            throw error("Illegal repetition");
+                        }
+                    } catch (NumberFormatException e) {
+                        throw error("Illegal repetition");
+                    }
+                    if (min < 0 || (max >= 0 && max < min)) {
+                        throw error("Illegal repetition range");
+                    }
+                    pos = close + 1;
+                } else {
+                    return atom;
+                }
+                if (peek() == '?') {
+                    // reluctant, makes no difference for a full match
+                    pos++;
+                } else if (peek() == '+') {
+                    throw error("Possessive quantifiers are not supported in linear-time mode");
+                }
+                atom = Node.repeat(atom, min, max);
+            }
+            return atom;
+        }
+
+        private Node atom() {
+            char c = regex.charAt(pos);
+            switch (c) {
+                case '(':
+                    pos++;
+                    if (peek() == '?') {
+                        pos++;
+                        char kind = peek();
+                        if (kind == ':') {
+                            pos++;
+                        } else if (kind == '<' && pos + 1 < regex.length() && Character.isLetter(regex.charAt(pos + 1))) {
+                            int close = regex.indexOf('>', pos);
+                            if (close < 0) {
+                                throw error("Named capturing group is missing trailing '>'");
+                            }
+                            pos = close + 1;
+                        } else {
+                            throw error("Lookaround, atomic groups and inline flags are not supported in linear-time mode");
+                        }
+                    }
+                    Node group = alternation();
+                    if (peek() != ')') {
+                        throw error("Unclosed group");
+                    }
+                    pos++;
+                    return group;
+                case '[':
+                    pos++;
+                    return Node.character(charClass());
+                case '.':
+                    pos++;
+                    return Node.character(CharClass.DOT);
+                case '^':
+                    pos++;
+                    return Node.anchor(BEGIN);
+                case '$':
+                    pos++;
+                    return Node.anchor(END);
+                case '\\':
+                    return Node.character(escape(false));
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw error("Dangling meta character '" + c + "'");
+                default:
+                    int cp = regex.codePointAt(pos);
+                    pos += Character.charCount(cp);
+                    return Node.character(CharClass.of(cp));
+            }
+        }
+
+        private CharClass charClass() {
+            boolean negated = false;
+            if (peek() == '^') {
+                negated = true;
+                pos++;
+            }
+            CharClass result = CharClass.NONE;
+            boolean first = true;
+            while (true) {
+                if (pos >= regex.length()) {
+                    throw error("Unclosed character class");
+                }
+                char c = regex.charAt(pos);
+                if (c == ']' && !first) {
+                    pos++;
+                    break;
+                }
+                first = false;
+                if (c == '[' || regex.startsWith("&&", pos)) {
+                    throw error("Nested classes and intersections are not supported in linear-time mode");
+                }
+                CharClass item;
+                int from;
+                if (c == '\\') {
+                    item = escape(true);
+                    from = item.ranges.length == 2 && item.ranges[0] == item.ranges[1] ? item.ranges[0] : -1;
+                } else {
+                    from = regex.codePointAt(pos);
+                    pos += Character.charCount(from);
+                    item = CharClass.of(from);
+                }
+                if (from >= 0 && peek() == '-' && pos + 1 < regex.length() && regex.charAt(pos + 1) != ']') {
+                    pos++;
+                    int to;
+                    if (peek() == '\\') {
+                        CharClass escaped = escape(true);
+                        if (escaped.ranges.length != 2 || escaped.ranges[0] != escaped.ranges[1]) {
+                            throw error("Illegal character range");
+                        }
+                        to = escaped.ranges[0];
+                    } else {
+                        to = regex.codePointAt(pos);
+                        pos += Character.charCount(to);
+                    }
+                    if (to < from) {
+                        throw error("Illegal character range");
+                    }
+                    item = CharClass.range(from, to);
+                }
+                result = result.union(item);
+            }
+            return negated ? result.complement() : result;
+        }
+
+        private CharClass escape(boolean inClass) {
+            pos++;
+            if (pos >= regex.length()) {
+                throw error("Unexpected internal error");
+            }
+            char c = regex.charAt(pos++);
+            switch (c) {
+                case 'd':
+                    return CharClass.DIGIT;
+                case 'D':
+                    return CharClass.DIGIT.complement();
+                case 'w':
+                    return CharClass.WORD;
+                case 'W':
+                    return CharClass.WORD.complement();
+                case 's':
+                    return CharClass.SPACE;
+                case 'S':
+                    return CharClass.SPACE.complement();
+                case 't':
+                    return CharClass.of('\t');
+                case 'n':
+                    return CharClass.of('\n');
+                case 'r':
+                    return CharClass.of('\r');
+                case 'f':
+                    return CharClass.of('\f');
+                case 'e':
+                    return CharClass.of('\u001B');
+                default:
+                    if (Character.isLetterOrDigit(c)) {
+                        throw error("Escape sequence \\" + c + " is not supported in linear-time mode");
+                    }
+                    return CharClass.of(c);
+            }
+        }
+
+        private char peek() {
+            return pos < regex.length() ? regex.charAt(pos) : '\0';
+        }
+
+        private PatternSyntaxException error(String description) {
+            return new PatternSyntaxException(description, regex, pos);
+        }
+    }
+}
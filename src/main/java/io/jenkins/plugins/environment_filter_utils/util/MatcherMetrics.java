@@ -0,0 +1,357 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import hudson.model.Describable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Collects evaluation statistics of individual matcher instances, when enabled.
+ * <p>
+ * Matchers call {@link #start()} before and {@link #record(Object, long, Boolean)} after an evaluation, in a
+ * {@code finally} block so that evaluations failing with an exception are counted too. When disabled, this costs a
+ * single volatile read. When enabled, recording neither locks nor allocates once a matcher has been seen,
+ * so that measuring does not add contention between executors.
+ */
+@Restricted(NoExternalUse.class)
+public final class MatcherMetrics {
+    private static final Logger LOGGER = Logger.getLogger(MatcherMetrics.class.getName());
+
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    /**
+     * Number of recent evaluation durations kept per matcher to compute percentiles from. Must be a power of two.
+     */
+    private static final int SAMPLES = 1024;
+
+    private static final long WARNING_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    private static volatile boolean enabled =
+            SystemProperties.getBoolean(MatcherMetrics.class.getName() + ".enabled", false);
+
+    private static volatile long warningThresholdMicros =
+            SystemProperties.getLong(MatcherMetrics.class.getName() + ".warningThresholdMicros", 1000L);
+
+    /**
+     * Statistics by matcher instance. Matchers define equality by configuration, so this is keyed by identity.
+     */
+    private static final Map<Object, Statistics> STATISTICS = new ConcurrentHashMap<>();
+
+    private static final ReferenceQueue<Object> COLLECTED = new ReferenceQueue<>();
+
+    private static final ThreadLocal<Lookup> LOOKUP = ThreadLocal.withInitial(Lookup::new);
+
+    private MatcherMetrics() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        MatcherMetrics.enabled = enabled;
+    }
+
+    public static long getWarningThresholdMicros() {
+        return warningThresholdMicros;
+    }
+
+    /**
+     * Set the duration above which a single evaluation is logged as a warning, or {@code 0} to never warn.
+     */
+    public static void setWarningThresholdMicros(long warningThresholdMicros) {
+        MatcherMetrics.warningThresholdMicros = Math.max(0, warningThresholdMicros);
+    }
+
+    /**
+     * Call before evaluating a matcher.
+     *
+     * @return a value to pass to {@link #record(Object, long, Boolean)}
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    /**
+     * Call after evaluating a matcher.
+     *
+     * @param matcher the evaluated matcher
+     * @param start the value returned by {@link #start()}
+     * @param result the result of the evaluation, or {@code null} if it failed with an exception, e.g.
+     *     {@link io.jenkins.plugins.environment_filter_utils.matchers.run.MatchBudgetExceededException}
+     */
+    public static void record(Object matcher, long start, @CheckForNull Boolean result) {
+        if (start == DISABLED) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        Statistics statistics = statistics(matcher);
+        statistics.record(nanos, result);
+        long threshold = warningThresholdMicros;
+        if (threshold > 0 && nanos > TimeUnit.MICROSECONDS.toNanos(threshold) && statistics.shouldWarn()) {
+            LOGGER.log(
+                    Level.WARNING,
+                    "Evaluating {0} took {1} microseconds, more than the threshold of {2} microseconds",
+                    new Object[] {statistics.getDescription(), TimeUnit.NANOSECONDS.toMicros(nanos), threshold});
+        }
+    }
+
+    private static Statistics statistics(Object matcher) {
+        Lookup lookup = LOOKUP.get();
+        lookup.matcher = matcher;
+        Statistics statistics;
+        try {
+            statistics = STATISTICS.get(lookup);
+        } finally {
+            lookup.matcher = null;
+        }
+        if (statistics == null) {
+            // first evaluation of this matcher, the only time anything is allocated
+            expunge();
+            Key key = new Key(matcher, COLLECTED);
+            Statistics created = new Statistics(key);
+            statistics = STATISTICS.putIfAbsent(key, created);
+            if (statistics == null) {
+                statistics = created;
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Statistics of all matchers evaluated since metrics were enabled, slowest first.
+     */
+    public static List<Statistics> getStatistics() {
+        expunge();
+        List<Statistics> result = new ArrayList<>(STATISTICS.values());
+        result.sort((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+        return result;
+    }
+
+    public static void reset() {
+        STATISTICS.clear();
+    }
+
+    /**
+     * The statistics as flat metric names and values, following the naming conventions of Dropwizard Metrics, so they
+     * can be registered as gauges in a {@code MetricRegistry}.
+     */
+    public static SortedMap<String, Number> getMetrics() {
+        SortedMap<String, Number> metrics = new TreeMap<>();
+        for (Statistics statistics : getStatistics()) {
+            String prefix = "environment-filter-utils.matchers." + statistics.getId() + ".";
+            metrics.put(prefix + "invocations", statistics.getInvocations());
+            metrics.put(prefix + "matches", statistics.getMatches());
+            metrics.put(prefix + "failures", statistics.getFailures());
+            metrics.put(prefix + "total-nanos", statistics.getTotalNanos());
+            metrics.put(prefix + "p99-nanos", statistics.getPercentileNanos(0.99));
+        }
+        return metrics;
+    }
+
+    private static void expunge() {
+        Reference<?> collected;
+        while ((collected = COLLECTED.poll()) != null) {
+            STATISTICS.remove(collected);
+        }
+    }
+
+    /**
+     * Weak reference to a matcher, compared by identity of the referent.
+     */
+    private static final class Key extends WeakReference<Object> {
+        private final int hash;
+
+        Key(Object matcher, ReferenceQueue<Object> queue) {
+            super(matcher, queue);
+            this.hash = System.identityHashCode(matcher);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            Object referent = get();
+            if (referent == null) {
+                return false;
+            }
+            if (obj instanceof Key) {
+                return referent == ((Key) obj).get();
+            }
+            return obj instanceof Lookup && referent == ((Lookup) obj).matcher;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Reusable per thread to look up the {@link Key} of a matcher without allocating one.
+     */
+    private static final class Lookup {
+        private Object matcher;
+
+        @Override
+        public boolean equals(Object obj) {
+            return matcher != null && obj instanceof Key && ((Key) obj).get() == matcher;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(matcher);
+        }
+    }
+
+    public static final class Statistics {
+        private static final AtomicInteger IDS = new AtomicInteger();
+
+        private final String id;
+        // not the matcher itself, which would keep it from being collected
+        private final Key key;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+        private final AtomicInteger nextSample = new AtomicInteger();
+        private final AtomicLong lastWarning = new AtomicLong(System.nanoTime() - WARNING_INTERVAL);
+
+        Statistics(Key key) {
+            this.id = key.get().getClass().getSimpleName() + "-" + IDS.incrementAndGet();
+            this.key = key;
+        }
+
+        void record(long nanos, Boolean result) {
+            invocations.increment();
+            if (result == null) {
+                failures.increment();
+            } else if (result) {
+                matches.increment();
+            }
+            totalNanos.add(nanos);
+            samples.set(nextSample.getAndIncrement() & (SAMPLES - 1), nanos);
+        }
+
+        boolean shouldWarn() {
+            long now = System.nanoTime();
+            long last = lastWarning.get();
+            return now - last > WARNING_INTERVAL && lastWarning.compareAndSet(last, now);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Describes the current configuration of the matcher, which may have changed since it was first evaluated.
+         */
+        public String getDescription() {
+            Object matcher = key.get();
+            if (matcher == null) {
+                return id;
+            }
+            String type = matcher instanceof Describable
+                    ? ((Describable<?>) matcher).getDescriptor().getDisplayName()
+                    : matcher.getClass().getSimpleName();
+            return type + ": " + matcher;
+        }
+
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        public long getMatches() {
+            return matches.sum();
+        }
+
+        /**
+         * Evaluations that failed with an exception, e.g. because they exceeded their work budget.
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * Compute a percentile of the most recent evaluation durations.
+         *
+         * @param percentile between 0 and 1
+         */
+        public long getPercentileNanos(double percentile) {
+            int next = nextSample.get();
+            // the counter may have overflowed, in which case all samples are populated
+            int count = next < 0 || next > SAMPLES ? SAMPLES : next;
+            if (count == 0) {
+                return 0;
+            }
+            long[] values = new long[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = samples.get(i);
+            }
+            Arrays.sort(values);
+            return values[(int) Math.min(count - 1, Math.ceil(percentile * count) - 1)];
+        }
+
+        // used by Jelly view
+        public long getMeanMicros() {
+            long n = getInvocations();
+            return n == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(getTotalNanos() / n);
+        }
+
+        // used by Jelly view
+        public long getP99Micros() {
+            return TimeUnit.NANOSECONDS.toMicros(getPercentileNanos(0.99));
+        }
+
+        // used by Jelly view
+        public long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(getTotalNanos());
+        }
+    }
+}
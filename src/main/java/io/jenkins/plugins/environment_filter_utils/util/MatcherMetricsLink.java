@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import java.util.List;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Shows the statistics collected by {@link MatcherMetrics} and allows enabling them.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class MatcherMetricsLink extends ManagementLink {
+    @Override
+    public String getIconFileName() {
+        return "symbol-analytics";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.MatcherMetricsLink_DisplayName();
+    }
+
+    @Override
+    public String getDescription() {
+        return Messages.MatcherMetricsLink_Description();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "environment-filter-matchers";
+    }
+
+    @Override
+    public @Nonnull Category getCategory() {
+        return Category.STATUS;
+    }
+
+    // used by Jelly view
+    public boolean isEnabled() {
+        return MatcherMetrics.isEnabled();
+    }
+
+    // used by Jelly view
+    public long getWarningThresholdMicros() {
+        return MatcherMetrics.getWarningThresholdMicros();
+    }
+
+    // used by Jelly view
+    public List<MatcherMetrics.Statistics> getStatistics() {
+        return MatcherMetrics.getStatistics();
+    }
+
+    @POST
+    public HttpResponse doConfigure(@QueryParameter boolean enabled, @QueryParameter long warningThresholdMicros) {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        MatcherMetrics.setEnabled(enabled);
+        MatcherMetrics.setWarningThresholdMicros(warningThresholdMicros);
+        return HttpResponses.redirectToDot();
+    }
+
+    @POST
+    public HttpResponse doReset() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        MatcherMetrics.reset();
+        return HttpResponses.redirectToDot();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Plugin-wide cache of compiled regular expressions, so that identical expressions used by many matchers share a
+ * single {@link Pattern}. The cache is bounded and evicts the least recently used entry.
+ */
+@Restricted(NoExternalUse.class)
+public final class PatternCache {
+    private static final int MAX_SIZE = SystemProperties.getInteger(PatternCache.class.getName() + ".maxSize", 512);
+
+    private static final Lru<Pattern> PATTERNS = new Lru<>(Pattern::compile);
+    private static final Lru<LinearPattern> LINEAR_PATTERNS = new Lru<>(LinearPattern::compile);
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private PatternCache() {}
+
+    /**
+     * Return the compiled form of the specified regular expression, compiling it if it is not cached yet.
+     *
+     * @param regex the regular expression
+     * @return the compiled pattern
+     * @throws PatternSyntaxException if the expression is invalid
+     */
+    public static @Nonnull Pattern compile(@Nonnull String regex) {
+        return PATTERNS.get(regex);
+    }
+
+    /**
+     * Like {@link #compile(String)}, for {@link LinearPattern}.
+     *
+     * @throws PatternSyntaxException if the expression is invalid or not supported in linear-time mode
+     */
+    public static @Nonnull LinearPattern compileLinear(@Nonnull String regex) {
+        return LINEAR_PATTERNS.get(regex);
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    public static int size() {
+        return PATTERNS.size() + LINEAR_PATTERNS.size();
+    }
+
+    private static final class Lru<V> {
+        private final Function<String, V> compiler;
+        private final Map<String, V> cache = new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > MAX_SIZE;
+            }
+        };
+
+        Lru(Function<String, V> compiler) {
+            this.compiler = compiler;
+        }
+
+        V get(String regex) {
+            synchronized (cache) {
+                V value = cache.get(regex);
+                if (value != null) {
+                    HITS.increment();
+                    return value;
+                }
+            }
+            MISSES.increment();
+            // compile outside the lock, a concurrent miss for the same expression only costs a duplicate compilation
+            V compiled = compiler.apply(regex);
+            synchronized (cache) {
+                V existing = cache.putIfAbsent(regex, compiled);
+                return existing == null ? compiled : existing;
+            }
+        }
+
+        int size() {
+            synchronized (cache) {
+                return cache.size();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Looks for constructs in regular expressions that can make backtracking engines like {@link java.util.regex} take
+ * exponential or polynomial time for some inputs. This is a heuristic, it may miss problems and flag expressions that
+ * are fine in practice.
+ */
+@Restricted(NoExternalUse.class)
+public final class RegexAnalyzer {
+    public enum Issue {
+        /**
+         * A repeated expression containing a quantifier, like {@code (a+)+}.
+         */
+        NESTED_QUANTIFIER,
+        /**
+         * Repeated alternatives that can match the same text, like {@code (a|ab)*}.
+         */
+        OVERLAPPING_ALTERNATION,
+        /**
+         * Adjacent quantifiers over overlapping characters, like {@code \d+\d+}.
+         */
+        ADJACENT_QUANTIFIERS
+    }
+
+    private RegexAnalyzer() {}
+
+    /**
+     * Analyze the expression.
+     *
+     * @return the issues found. Expressions using constructs not supported by {@link LinearPattern} are not analyzed.
+     */
+    public static @Nonnull Set<Issue> analyze(@Nonnull String regex) {
+        Set<Issue> issues = EnumSet.noneOf(Issue.class);
+        LinearPattern.Node root;
+        try {
+            root = new LinearPattern.Parser(regex).parse();
+        } catch (PatternSyntaxException e) {
+            return issues;
+        }
+        visit(root, issues);
+        return issues;
+    }
+
+    private static void visit(LinearPattern.Node node, Set<Issue> issues) {
+        if (node.isRepeat() && node.max != node.min) {
+            LinearPattern.Node child = node.children.get(0);
+            if (containsVariableRepeat(child)) {
+                issues.add(Issue.NESTED_QUANTIFIER);
+            }
+            if (node.max < 0 && hasOverlappingAlternatives(child)) {
+                issues.add(Issue.OVERLAPPING_ALTERNATION);
+            }
+        }
+        if (node.isConcat()) {
+            List<LinearPattern.Node> children = node.children;
+            for (int i = 1; i < children.size(); i++) {
+                if (isUnboundedCharacterRepeat(children.get(i - 1))
+                        && isUnboundedCharacterRepeat(children.get(i))
+                        && children.get(i - 1).first().intersects(children.get(i).first())) {
+                    issues.add(Issue.ADJACENT_QUANTIFIERS);
+                }
+            }
+        }
+        for (LinearPattern.Node child : node.children) {
+            visit(child, issues);
+        }
+    }
+
+    private static boolean containsVariableRepeat(LinearPattern.Node node) {
+        if (node.isRepeat() && node.isVariableLength()) {
+            return true;
+        }
+        for (LinearPattern.Node child : node.children) {
+            if (containsVariableRepeat(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasOverlappingAlternatives(LinearPattern.Node node) {
+        while (node.isConcat() && !node.children.isEmpty()) {
+            node = node.children.get(0);
+        }
+        if (!node.isAlternation()) {
+            return false;
+        }
+        List<LinearPattern.Node> alternatives = node.children;
+        for (int i = 0; i < alternatives.size(); i++) {
+            if (alternatives.get(i).isNullable()) {
+                return true;
+            }
+            for (int j = i + 1; j < alternatives.size(); j++) {
+                if (alternatives.get(i).first().intersects(alternatives.get(j).first())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUnboundedCharacterRepeat(LinearPattern.Node node) {
+        return node.isRepeat() && node.max < 0 && node.children.get(0).isCharacter();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import io.jenkins.plugins.environment_filter_utils.matchers.run.MatchBudgetExceededException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Evaluates {@link Pattern}s with an upper limit on the work done, so that an expression with catastrophic
+ * backtracking cannot occupy a thread for a long time.
+ * <p>
+ * The work is measured in characters read from the input. When the limit is exceeded, the evaluation is aborted with
+ * {@link MatchBudgetExceededException}, so that callers can fail closed instead of treating the input as not
+ * matching.
+ * <p>
+ * {@link Matcher}s are reused per thread, so evaluating a pattern does not allocate in steady state.
+ */
+@Restricted(NoExternalUse.class)
+public final class RegexBudget {
+    private static final Logger LOGGER = Logger.getLogger(RegexBudget.class.getName());
+
+    private static final int MAX_STEPS =
+            SystemProperties.getInteger(RegexBudget.class.getName() + ".maxSteps", 1_000_000);
+
+    private static final long WARNING_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    private static final AtomicLong LAST_WARNING = new AtomicLong(System.nanoTime() - WARNING_INTERVAL);
+
+    private static final ThreadLocal<Matchers> MATCHERS = ThreadLocal.withInitial(Matchers::new);
+
+    private RegexBudget() {}
+
+    /**
+     * Whether the entire input matches the pattern.
+     *
+     * @throws MatchBudgetExceededException if the pattern took too long to evaluate
+     */
+    public static boolean matches(@Nonnull Pattern pattern, @Nonnull CharSequence input) {
+        Matchers matchers = MATCHERS.get();
+        if (MAX_STEPS <= 0) {
+            return matchers.get(pattern, input).matches();
+        }
+        Budgeted budgeted = matchers.budgeted;
+        budgeted.reset(input, MAX_STEPS);
+        try {
+            return matchers.get(pattern, budgeted).matches();
+        } catch (BudgetExceeded e) {
+            // the input may be a reused view, the exception and log record must not reference it
+            String name = input.toString();
+            long now = System.nanoTime();
+            long last = LAST_WARNING.get();
+            if (now - last > WARNING_INTERVAL && LAST_WARNING.compareAndSet(last, now)) {
+                LOGGER.log(
+                        Level.WARNING,
+                        "Gave up matching ''{0}'' against the regular expression ''{1}'' after {2} steps,"
+                                + " treating it as matching. Consider simplifying the expression or enabling"
+                                + " linear-time matching.",
+                        new Object[] {name, pattern.pattern(), MAX_STEPS});
+            }
+            throw new MatchBudgetExceededException("Gave up matching '" + name + "' against the regular expression '"
+                    + pattern.pattern() + "' after " + MAX_STEPS + " steps");
+        } finally {
+            budgeted.reset(null, 0);
+        }
+    }
+
+    /**
+     * Recently used matchers of one thread.
+     */
+    private static final class Matchers {
+        private static final int SIZE = 16;
+
+        private final Pattern[] patterns = new Pattern[SIZE];
+        private final Matcher[] matchers = new Matcher[SIZE];
+        private final Budgeted budgeted = new Budgeted();
+        private int next;
+
+        Matcher get(Pattern pattern, CharSequence input) {
+            for (int i = 0; i < SIZE; i++) {
+                if (patterns[i] == pattern) {
+                    return matchers[i].reset(input);
+                }
+            }
+            Matcher matcher = pattern.matcher(input);
+            patterns[next] = pattern;
+            matchers[next] = matcher;
+            next = (next + 1) % SIZE;
+            return matcher;
+        }
+    }
+
+    private static final class Budgeted implements CharSequence {
+        private CharSequence delegate;
+        private int remaining;
+
+        void reset(CharSequence delegate, int budget) {
+            this.delegate = delegate;
+            this.remaining = budget;
+        }
+
+        @Override
+        public int length() {
+            return delegate.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (--remaining < 0) {
+                throw BudgetExceeded.INSTANCE;
+            }
+            return delegate.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return delegate.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    private static final class BudgetExceeded extends RuntimeException {
+        private static final BudgetExceeded INSTANCE = new BudgetExceeded();
+
+        private BudgetExceeded() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -35,7 +35,7 @@ def enabledList = self?.getDescriptorClassNames()?:null;
 f.entry(title: _("className")) {
 
     table(width: "100%") {
-        for (Descriptor descriptor : BuilderUtil.allDescriptors().sort({ o1, o2 -> o1.getDisplayName() <=> o2.getDisplayName() }) ) {
+        for (Descriptor descriptor : BuilderUtil.allDescriptors()) {
             String className = descriptor.getClass().getName()
             f.block {
                 // check by default
@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Job;
+import hudson.model.Result;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.CachingRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.ExactJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.NotRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RunMatcher;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class CachingRunMatcherTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testEvaluatedOncePerJob() throws Exception {
+        AtomicInteger evaluations = new AtomicInteger();
+        ExactJobFullNameRunMatcher exact = new ExactJobFullNameRunMatcher() {
+            @Override
+            public boolean testJob(@Nonnull Job<?, ?> job) {
+                evaluations.incrementAndGet();
+                return super.testJob(job);
+            }
+        };
+        exact.setName("job");
+        RunMatcher matcher = CachingRunMatcher.of(exact);
+
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        FreeStyleBuild first = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+        FreeStyleBuild second = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+        assertThat(matcher.test(first), equalTo(true));
+        assertThat(matcher.test(second), equalTo(true));
+        assertThat(matcher.test(first), equalTo(true));
+        assertThat(evaluations.get(), equalTo(1));
+
+        // other matchers, like those bound from a submitted form, do not discard the verdicts
+        new RegexJobFullNameRunMatcher().setRegex("job");
+        project.renameTo("other");
+        project.renameTo("job");
+        assertThat(matcher.test(second), equalTo(true));
+        assertThat(evaluations.get(), equalTo(1));
+
+        exact.setName("job");
+        assertThat(matcher.test(second), equalTo(true));
+        assertThat(evaluations.get(), equalTo(2));
+    }
+
+    @Test
+    public void testBuildDependentNotCached() throws Exception {
+        RunMatcher matcher = CachingRunMatcher.of(run -> run.getNumber() == 1);
+        NotRunMatcher not = new NotRunMatcher();
+        not.setMatcher(run -> run.getNumber() == 1);
+        RunMatcher notMatcher = CachingRunMatcher.of(not);
+
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        FreeStyleBuild first = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+        FreeStyleBuild second = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+        assertThat(matcher.test(first), equalTo(true));
+        assertThat(matcher.test(second), equalTo(false));
+        assertThat(notMatcher.test(first), equalTo(false));
+        assertThat(notMatcher.test(second), equalTo(true));
+    }
+
+    @Test
+    public void testInvalidatedOnReconfiguration() throws Exception {
+        RegexJobFullNameRunMatcher regex = new RegexJobFullNameRunMatcher();
+        regex.setRegex("job-.*");
+        NotRunMatcher not = new NotRunMatcher();
+        not.setMatcher(regex);
+        RunMatcher matcher = CachingRunMatcher.of(not);
+
+        FreeStyleProject project = j.createFreeStyleProject("job-A");
+        FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+        assertThat(matcher.test(build), equalTo(false));
+
+        // a nested matcher is reconfigured
+        regex.setRegex("other-.*");
+        assertThat(matcher.test(build), equalTo(true));
+    }
+
+    @Test
+    public void testInvalidatedOnRename() throws Exception {
+        ExactJobFullNameRunMatcher exact = new ExactJobFullNameRunMatcher();
+        exact.setName("job-before");
+        RunMatcher matcher = CachingRunMatcher.of(exact);
+
+        FreeStyleProject project = j.createFreeStyleProject("job-before");
+        FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+        assertThat(matcher.test(build), equalTo(true));
+
+        project.renameTo("job-after");
+        assertThat(matcher.test(build), equalTo(false));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThrows;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Items;
+import hudson.model.Result;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.AllOfRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.AnyOfRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.ExactJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.MatchBudgetExceededException;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.NotRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RunMatcher;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+
+public class CompositeRunMatcherTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testPolicy() throws Exception {
+        // folderA/* or folderB/*, but not *-sandbox
+        RegexJobFullNameRunMatcher folderA = new RegexJobFullNameRunMatcher();
+        folderA.setRegex("folderA/.*");
+        RegexJobFullNameRunMatcher folderB = new RegexJobFullNameRunMatcher();
+        folderB.setRegex("folderB/.*");
+        AnyOfRunMatcher folders = new AnyOfRunMatcher();
+        folders.setMatchers(Arrays.asList(folderA, folderB));
+        RegexJobFullNameRunMatcher sandbox = new RegexJobFullNameRunMatcher();
+        sandbox.setRegex(".*-sandbox");
+        NotRunMatcher notSandbox = new NotRunMatcher();
+        notSandbox.setMatcher(sandbox);
+        AllOfRunMatcher matcher = new AllOfRunMatcher();
+        matcher.setMatchers(Arrays.asList(folders, notSandbox));
+
+        MockFolder a = j.createFolder("folderA");
+        MockFolder b = j.createFolder("folderB");
+        MockFolder c = j.createFolder("folderC");
+
+        FreeStyleBuild inA = j.assertBuildStatus(
+                Result.SUCCESS, a.createProject(FreeStyleProject.class, "job").scheduleBuild2(0));
+        FreeStyleBuild inB = j.assertBuildStatus(
+                Result.SUCCESS, b.createProject(FreeStyleProject.class, "job").scheduleBuild2(0));
+        FreeStyleBuild inC = j.assertBuildStatus(
+                Result.SUCCESS, c.createProject(FreeStyleProject.class, "job").scheduleBuild2(0));
+        FreeStyleBuild sandboxInA = j.assertBuildStatus(
+                Result.SUCCESS, a.createProject(FreeStyleProject.class, "job-sandbox").scheduleBuild2(0));
+
+        // often enough for the evaluation order to be adjusted
+        for (int i = 0; i < 200; i++) {
+            assertThat(matcher.test(inA), equalTo(true));
+            assertThat(matcher.test(inB), equalTo(true));
+            assertThat(matcher.test(inC), equalTo(false));
+            assertThat(matcher.test(sandboxInA), equalTo(false));
+        }
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+        assertThat(new AnyOfRunMatcher().test(build), equalTo(false));
+        assertThat(new AllOfRunMatcher().test(build), equalTo(true));
+        assertThat(new NotRunMatcher().test(build), equalTo(true));
+    }
+
+    @Test
+    public void testDecisiveMatcherEvaluatedFirst() throws Exception {
+        AtomicInteger rarelyDecisive = new AtomicInteger();
+        RunMatcher matchesAll = run -> {
+            rarelyDecisive.incrementAndGet();
+            return true;
+        };
+        ExactJobFullNameRunMatcher matchesOther = new ExactJobFullNameRunMatcher();
+        matchesOther.setName("other");
+        AllOfRunMatcher matcher = new AllOfRunMatcher();
+        matcher.setMatchers(Arrays.asList(matchesAll, matchesOther));
+
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+        int evaluations = 10_000;
+        for (int i = 0; i < evaluations; i++) {
+            assertThat(matcher.test(build), equalTo(false));
+        }
+        // only evaluated while sampling, once the exact match is known to reject this build
+        assertThat(rarelyDecisive.get(), lessThan(evaluations / 10));
+    }
+
+    @Test
+    public void testBudgetExceeded() throws Exception {
+        RegexJobFullNameRunMatcher backtracking = new RegexJobFullNameRunMatcher();
+        backtracking.setRegex("(a+)+b");
+        NotRunMatcher not = new NotRunMatcher();
+        not.setMatcher(backtracking);
+        ExactJobFullNameRunMatcher exact = new ExactJobFullNameRunMatcher();
+        exact.setName("a".repeat(40) + "c");
+        ExactJobFullNameRunMatcher other = new ExactJobFullNameRunMatcher();
+        other.setName("other");
+
+        FreeStyleBuild build = j.assertBuildStatus(
+                Result.SUCCESS, j.createFreeStyleProject("a".repeat(40) + "c").scheduleBuild2(0));
+
+        // not inverted into a match
+        assertThrows(MatchBudgetExceededException.class, () -> not.test(build));
+
+        // only passed on when no other child decides the result, also once evaluations are no longer sampled
+        RunMatcher anyOfDecided = anyOf(backtracking, exact);
+        RunMatcher allOfDecided = allOf(backtracking, other);
+        RunMatcher anyOfUndecided = anyOf(backtracking, other);
+        RunMatcher allOfUndecided = allOf(backtracking, exact);
+        for (int i = 0; i < 40; i++) {
+            assertThat(anyOfDecided.test(build), equalTo(true));
+            assertThat(allOfDecided.test(build), equalTo(false));
+            assertThrows(MatchBudgetExceededException.class, () -> anyOfUndecided.test(build));
+            assertThrows(MatchBudgetExceededException.class, () -> allOfUndecided.test(build));
+        }
+
+        // evaluated together, fails closed
+        BitSet result = RunMatcher.evaluateAll(build, Arrays.asList(backtracking, not, other));
+        assertThat(result.get(0), equalTo(true));
+        assertThat(result.get(1), equalTo(true));
+        assertThat(result.get(2), equalTo(false));
+    }
+
+    private static AnyOfRunMatcher anyOf(RunMatcher... matchers) {
+        AnyOfRunMatcher result = new AnyOfRunMatcher();
+        result.setMatchers(Arrays.asList(matchers));
+        return result;
+    }
+
+    private static AllOfRunMatcher allOf(RunMatcher... matchers) {
+        AllOfRunMatcher result = new AllOfRunMatcher();
+        result.setMatchers(Arrays.asList(matchers));
+        return result;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ExactJobFullNameRunMatcher exact = new ExactJobFullNameRunMatcher();
+        exact.setName("job");
+        NotRunMatcher not = new NotRunMatcher();
+        not.setMatcher(exact);
+        AnyOfRunMatcher matcher = new AnyOfRunMatcher();
+        matcher.setMatchers(Collections.singletonList(not));
+
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+        AnyOfRunMatcher loaded = (AnyOfRunMatcher) Items.XSTREAM2.fromXML(Items.XSTREAM2.toXML(matcher));
+        assertThat(loaded.test(build), equalTo(false));
+        assertThat(loaded.toString(), equalTo(matcher.toString()));
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.Run;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.AnyOfRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.ExactJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.GlobJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.MultiRegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RunMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class ConcurrentEvaluationTest {
+    private static final int THREADS = 200;
+
+    private static final int ITERATIONS = 500;
+
+    /**
+     * Only valid without linear time, as lookahead is not supported in linear-time mode.
+     */
+    private static final String LOOKAHEAD = "job-(?=a)a";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testReconfigureWhileEvaluating() throws Exception {
+        FreeStyleBuild a = j.buildAndAssertSuccess(j.createFreeStyleProject("job-a"));
+        FreeStyleBuild b = j.buildAndAssertSuccess(j.createFreeStyleProject("job-b"));
+
+        // the configurations alternate between matching job-a and job-b
+        RegexJobFullNameRunMatcher regex = new RegexJobFullNameRunMatcher();
+        regex.setRegex(LOOKAHEAD);
+        GlobJobFullNameRunMatcher glob = new GlobJobFullNameRunMatcher();
+        glob.setGlob("job-a");
+        MultiRegexJobFullNameRunMatcher multi = new MultiRegexJobFullNameRunMatcher();
+        multi.setRegexes(Collections.singletonList("job-a"));
+        ExactJobFullNameRunMatcher exact = new ExactJobFullNameRunMatcher();
+        exact.setName("job-b");
+        AnyOfRunMatcher anyOf = new AnyOfRunMatcher();
+        anyOf.setMatchers(Arrays.asList(regex, glob));
+        List<RunMatcher> matchers = Arrays.asList(regex, glob, multi, exact, anyOf);
+        // each of these matches exactly one of the builds in every published configuration, unlike anyOf, whose
+        // children are reconfigured one after the other
+        int exclusive = 4;
+
+        // outcomes of the configurations published by the writer, and outcomes observed concurrently
+        Set<String> published = ConcurrentHashMap.newKeySet();
+        Set<String> observed = ConcurrentHashMap.newKeySet();
+        record(published, matchers, a, b);
+        // odd while the writer is reconfiguring a matcher
+        AtomicLong writes = new AtomicLong();
+        AtomicInteger stablePasses = new AtomicInteger();
+
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            List<Future<?>> evaluations = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                evaluations.add(executor.submit(() -> {
+                    try {
+                        ready.countDown();
+                        ready.await();
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            long before = writes.get();
+                            Set<String> outcomes = new TreeSet<>();
+                            int[] matched = record(outcomes, matchers, a, b);
+                            if (before % 2 == 1 || writes.get() != before) {
+                                // the verdicts for job-a and job-b may come from different configurations
+                                outcomes.removeIf(outcome -> !outcome.contains("failed"));
+                                observed.addAll(outcomes);
+                                continue;
+                            }
+                            // no configuration changed during this pass, so it must be one of those published
+                            stablePasses.incrementAndGet();
+                            observed.addAll(outcomes);
+                            for (int m = 0; m < exclusive; m++) {
+                                if (matched[m] != 1) {
+                                    failures.add(new AssertionError(
+                                            "Half-old, half-new configuration of " + matchers.get(m) + ": "
+                                                    + outcomes));
+                                }
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    } finally {
+                        done.countDown();
+                    }
+                }));
+            }
+            Future<?> writer = executor.submit(() -> {
+                try {
+                    ready.await();
+                    for (int i = 0; done.getCount() > 0; i++) {
+                        boolean odd = i % 2 == 1;
+                        // each setter publishes a configuration, so job-b without linear time is published in
+                        // between, but never the lookahead with linear time, which a torn read would fail to compile
+                        if (odd) {
+                            publish(writes, () -> regex.setRegex("job-b"));
+                            record(published, matchers, a, b);
+                            publish(writes, () -> regex.setLinearTime(true));
+                        } else {
+                            publish(writes, () -> regex.setLinearTime(false));
+                            record(published, matchers, a, b);
+                            publish(writes, () -> regex.setRegex(LOOKAHEAD));
+                        }
+                        record(published, matchers, a, b);
+                        publish(writes, () -> glob.setGlob(odd ? "*-b" : "job-a"));
+                        record(published, matchers, a, b);
+                        publish(writes, () -> multi.setRegexes(
+                                odd ? Arrays.asList("job-x", "j.*-b") : Collections.singletonList("job-a")));
+                        record(published, matchers, a, b);
+                        publish(writes, () -> exact.setName(odd ? "job-a" : "job-b"));
+                        record(published, matchers, a, b);
+                        publish(writes, () -> anyOf.setMatchers(
+                                odd ? Arrays.asList(multi, exact) : Arrays.asList(regex, glob)));
+                        record(published, matchers, a, b);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            for (Future<?> evaluation : evaluations) {
+                evaluation.get(5, TimeUnit.MINUTES);
+            }
+            writer.get(1, TimeUnit.MINUTES);
+            assertThat(failures.isEmpty() ? null : failures.peek(), equalTo(null));
+
+            assertThat(stablePasses.get(), greaterThan(0));
+
+            // every pass agrees with one of the published configurations
+            Set<String> inconsistent = new TreeSet<>(observed);
+            inconsistent.removeAll(published);
+            assertThat(inconsistent, empty());
+
+            // the last configuration is visible to all threads
+            regex.setLinearTime(false);
+            regex.setRegex("job-b");
+            List<Future<Boolean>> verdicts = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                verdicts.add(executor.submit(() -> regex.test(b) && !regex.test(a)));
+            }
+            for (Future<Boolean> verdict : verdicts) {
+                assertThat(verdict.get(1, TimeUnit.MINUTES), equalTo(true));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void publish(AtomicLong writes, Runnable setter) {
+        writes.incrementAndGet();
+        try {
+            setter.run();
+        } finally {
+            writes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Evaluate each matcher against both builds in one pass, and record the verdicts of each matcher as one outcome,
+     * including failures.
+     *
+     * @return for each matcher, how many of the builds it matched
+     */
+    private static int[] record(Set<String> outcomes, List<RunMatcher> matchers, Run<?, ?> a, Run<?, ?> b) {
+        int[] matched = new int[matchers.size()];
+        for (int m = 0; m < matchers.size(); m++) {
+            String verdictA = verdict(matchers.get(m), a);
+            String verdictB = verdict(matchers.get(m), b);
+            matched[m] = (verdictA.equals("true") ? 1 : 0) + (verdictB.equals("true") ? 1 : 0);
+            outcomes.add(m + " " + a.getParent().getFullName() + ": " + verdictA + ", "
+                    + b.getParent().getFullName() + ": " + verdictB);
+        }
+        return matched;
+    }
+
+    private static String verdict(RunMatcher matcher, Run<?, ?> build) {
+        try {
+            return String.valueOf(matcher.test(build));
+        } catch (RuntimeException e) {
+            return "failed with " + e;
+        }
+    }
+}
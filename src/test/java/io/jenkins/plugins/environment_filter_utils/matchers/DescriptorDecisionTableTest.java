@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import hudson.model.Descriptor;
+import hudson.tasks.BatchFile;
+import hudson.tasks.Shell;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.All;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.DescriptorDecisionTable;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.Multiple;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.Single;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.ExactJobFullNameRunMatcher;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class DescriptorDecisionTableTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testKnownDescriptors() {
+        Descriptor<?> shell = j.jenkins.getDescriptorByType(Shell.DescriptorImpl.class);
+        Descriptor<?> batch = j.jenkins.getDescriptorByType(BatchFile.DescriptorImpl.class);
+
+        DescriptorDecisionTable single = new Single(shell.getClass().getName()).toDecisionTable();
+        assertThat(single.test(shell), equalTo(true));
+        assertThat(single.test(batch), equalTo(false));
+
+        DescriptorDecisionTable multiple = new Multiple(
+                        Arrays.asList(shell.getClass().getName(), batch.getClass().getName()))
+                .toDecisionTable();
+        assertThat(multiple.test(shell), equalTo(true));
+        assertThat(multiple.test(batch), equalTo(true));
+
+        DescriptorDecisionTable none = new Multiple(Collections.emptyList()).toDecisionTable();
+        assertThat(none.isEmpty(), equalTo(true));
+        assertThat(none.test(shell), equalTo(false));
+    }
+
+    @Test
+    public void testUnknownDescriptor() {
+        // not a builder descriptor, so not part of the table
+        Descriptor<?> unknown = j.jenkins.getDescriptorByType(ExactJobFullNameRunMatcher.DescriptorImpl.class);
+
+        assertThat(new All().toDecisionTable().test(unknown), equalTo(true));
+        assertThat(new Single(unknown.getClass().getName()).toDecisionTable().test(unknown), equalTo(true));
+        assertThat(
+                DescriptorDecisionTable.anyOf(Arrays.asList(new Single("nope"), new Single("other")))
+                        .test(unknown),
+                equalTo(false));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Result;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.ExactJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.ExactJobFullNamesRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.FolderRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.MultiRegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RunMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+
+public class EvaluateAllTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private static ExactJobFullNameRunMatcher exact(String name) {
+        ExactJobFullNameRunMatcher matcher = new ExactJobFullNameRunMatcher();
+        matcher.setName(name);
+        return matcher;
+    }
+
+    private static RegexJobFullNameRunMatcher regex(String regex) {
+        RegexJobFullNameRunMatcher matcher = new RegexJobFullNameRunMatcher();
+        matcher.setRegex(regex);
+        return matcher;
+    }
+
+    private static BitSet individually(FreeStyleBuild build, List<RunMatcher> matchers) {
+        BitSet result = new BitSet();
+        for (int i = 0; i < matchers.size(); i++) {
+            if (matchers.get(i).test(build)) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testSameResults() throws Exception {
+        ExactJobFullNamesRunMatcher names = new ExactJobFullNamesRunMatcher();
+        names.setNames(Arrays.asList("job-A", "folder/job-B"));
+        MultiRegexJobFullNameRunMatcher multi = new MultiRegexJobFullNameRunMatcher();
+        multi.setRegexes(Collections.singletonList("other\nfolder/.*-B"));
+        FolderRunMatcher folders = new FolderRunMatcher();
+        folders.setFolders(Collections.singletonList("folder"));
+        RegexJobFullNameRunMatcher linear = regex("job-[A-Z]");
+        linear.setLinearTime(true);
+        List<RunMatcher> matchers = new ArrayList<>(Arrays.asList(
+                exact("job-A"),
+                exact("folder/job-B"),
+                exact("job-A"),
+                names,
+                regex("job-.*"),
+                regex(".*/job-.*"),
+                multi,
+                folders,
+                linear,
+                run -> true));
+
+        MockFolder folder = j.createFolder("folder");
+        List<FreeStyleBuild> builds = Arrays.asList(
+                j.assertBuildStatus(Result.SUCCESS, j.createFreeStyleProject("job-A").scheduleBuild2(0)),
+                j.assertBuildStatus(Result.SUCCESS, j.createFreeStyleProject("job-C").scheduleBuild2(0)),
+                j.assertBuildStatus(
+                        Result.SUCCESS,
+                        folder.createProject(FreeStyleProject.class, "job-B").scheduleBuild2(0)),
+                j.assertBuildStatus(
+                        Result.SUCCESS,
+                        folder.createProject(FreeStyleProject.class, "other").scheduleBuild2(0)));
+
+        for (FreeStyleBuild build : builds) {
+            assertThat(RunMatcher.evaluateAll(build, matchers), equalTo(individually(build, matchers)));
+        }
+
+        // changes to the matchers and the list are picked up
+        ((ExactJobFullNameRunMatcher) matchers.get(0)).setName("job-C");
+        names.setNames(Collections.singletonList("folder/other"));
+        matchers.remove(matchers.size() - 1);
+        for (FreeStyleBuild build : builds) {
+            assertThat(RunMatcher.evaluateAll(build, matchers), equalTo(individually(build, matchers)));
+        }
+    }
+
+    @Test
+    public void testInvalidExpression() throws Exception {
+        MultiRegexJobFullNameRunMatcher multi = new MultiRegexJobFullNameRunMatcher();
+        multi.setRegexes(Arrays.asList("other-.*", "job-["));
+        List<RunMatcher> matchers = Arrays.asList(regex("job-.*"), multi, exact("other-job"), regex("job-("));
+
+        FreeStyleBuild build =
+                j.assertBuildStatus(Result.SUCCESS, j.createFreeStyleProject("job-A").scheduleBuild2(0));
+        assertThrows(PatternSyntaxException.class, () -> multi.test(build));
+
+        // the other matchers are still evaluated, the ones that cannot be are included
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(1);
+        expected.set(3);
+        assertThat(RunMatcher.evaluateAll(build, matchers), equalTo(expected));
+    }
+}
@@ -24,15 +24,27 @@
 package io.jenkins.plugins.environment_filter_utils.matchers;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
 
 import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
+import hudson.model.Item;
 import hudson.model.Result;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.FormValidation;
 import io.jenkins.plugins.environment_filter_utils.matchers.run.ExactJobFullNameRunMatcher;
+import jenkins.model.Jenkins;
 import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
 import org.jvnet.hudson.test.MockFolder;
 
 public class ExactJobFullNameRunMatcherTest {
@@ -105,4 +117,114 @@ public class ExactJobFullNameRunMatcherTest {
             assertThat(matcherDirectJob.test(build), equalTo(true));
         }
     }
+
+    @Test
+    public void testAutoCompleteName() throws Exception {
+        ExactJobFullNameRunMatcher.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(ExactJobFullNameRunMatcher.DescriptorImpl.class);
+        MockFolder folder = j.createFolder("folder");
+        folder.createProject(FreeStyleProject.class, "job-A");
+        MockFolder hidden = j.createFolder("folder-hidden");
+        hidden.createProject(FreeStyleProject.class, "job-A");
+        j.createFreeStyleProject("job-B");
+        FreeStyleProject project = j.createFreeStyleProject("renamed");
+        for (int i = 0; i < 30; i++) {
+            j.createFreeStyleProject("many-" + i);
+        }
+        project.renameTo("folder-job");
+
+        assertThat(
+                descriptor.doAutoCompleteName("folder").getValues(),
+                contains("folder", "folder-hidden", "folder-hidden/job-A", "folder-job", "folder/job-A"));
+        assertThat(descriptor.doAutoCompleteName("ren").getValues(), empty());
+        assertThat(descriptor.doAutoCompleteName("many-").getValues(), hasSize(20));
+
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("user")
+                .grant(Item.READ)
+                .onItems(folder, project)
+                .to("user")
+                .grant(Item.DISCOVER)
+                .onItems(hidden)
+                .to("user"));
+        try (ACLContext ignored = ACL.as2(User.getById("user", true).impersonate2())) {
+            assertThat(
+                    descriptor.doAutoCompleteName("folder").getValues(),
+                    contains("folder", "folder-job", "folder/job-A"));
+        }
+    }
+
+    @Test
+    public void testAutoCompleteNameSkipsUnreadableFolders() throws Exception {
+        ExactJobFullNameRunMatcher.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(ExactJobFullNameRunMatcher.DescriptorImpl.class);
+        MockFolder hidden = j.createFolder("folder-hidden");
+        for (int i = 0; i < 100; i++) {
+            hidden.createProject(FreeStyleProject.class, "job-" + i);
+        }
+        MockFolder nested = hidden.createProject(MockFolder.class, "nested");
+        FreeStyleProject granted = nested.createProject(FreeStyleProject.class, "job-granted");
+        MockFolder visible = j.createFolder("folder-visible");
+        visible.createProject(FreeStyleProject.class, "job-A");
+
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("user")
+                .grant(Item.READ)
+                .onItems(visible, granted)
+                .to("user"));
+        try (ACLContext ignored = ACL.as2(User.getById("user", true).impersonate2())) {
+            // more names inside the unreadable folder than items are resolved for a request
+            assertThat(
+                    descriptor.doAutoCompleteName("folder").getValues(),
+                    contains("folder-visible", "folder-visible/job-A"));
+            // readable itself, but inside folders that are not
+            assertThat(descriptor.doAutoCompleteName("folder-hidden/nested/").getValues(), empty());
+            FormValidation result = descriptor.doCheckName("folder-hidden/nested/job-grantd");
+            assertThat(result.getMessage(), not(containsString("Did you mean")));
+        }
+    }
+
+    @Test
+    public void testCheckName() throws Exception {
+        ExactJobFullNameRunMatcher.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(ExactJobFullNameRunMatcher.DescriptorImpl.class);
+        MockFolder folder = j.createFolder("folder");
+        folder.createProject(FreeStyleProject.class, "job-A");
+        j.createFreeStyleProject("job-B");
+
+        assertThat(descriptor.doCheckName("folder/job-A").kind, equalTo(FormValidation.Kind.OK));
+        assertThat(descriptor.doCheckName("job-B").kind, equalTo(FormValidation.Kind.OK));
+
+        FormValidation result = descriptor.doCheckName("folder/jbo-A");
+        assertThat(result.kind, equalTo(FormValidation.Kind.WARNING));
+        assertThat(result.getMessage(), containsString("Did you mean folder/job-A?"));
+
+        // only names in the same folder are suggested
+        result = descriptor.doCheckName("job-A");
+        assertThat(result.kind, equalTo(FormValidation.Kind.WARNING));
+        assertThat(result.getMessage(), containsString("Did you mean job-B?"));
+
+        result = descriptor.doCheckName("folder/something-else");
+        assertThat(result.kind, equalTo(FormValidation.Kind.WARNING));
+        assertThat(result.getMessage(), not(containsString("Did you mean")));
+
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("user")
+                .grant(Item.DISCOVER)
+                .onItems(folder)
+                .to("user"));
+        try (ACLContext ignored = ACL.as2(User.getById("user", true).impersonate2())) {
+            // discoverable but not readable, reported like a missing job rather than failing
+            assertThat(descriptor.doCheckName("folder/job-A").kind, equalTo(FormValidation.Kind.WARNING));
+        }
+    }
 }
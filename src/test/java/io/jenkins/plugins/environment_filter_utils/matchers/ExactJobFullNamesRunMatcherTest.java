@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.Result;
+import hudson.model.User;
+import hudson.model.listeners.ItemListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.ExactJobFullNamesRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.NotRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RunMatcher;
+import java.util.Arrays;
+import java.util.Collections;
+import jenkins.model.Jenkins;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.MockFolder;
+import org.jvnet.hudson.test.TestExtension;
+
+public class ExactJobFullNamesRunMatcherTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testNames() throws Exception {
+        ExactJobFullNamesRunMatcher matcher = new ExactJobFullNamesRunMatcher();
+        matcher.setNames(Arrays.asList("job-A\nfolder/job-B", " job-C "));
+        assertThat(matcher.getNames(), contains("job-A", "folder/job-B", "job-C"));
+
+        MockFolder folder = j.createFolder("folder");
+
+        { // listed at root level
+            FreeStyleProject project = j.createFreeStyleProject("job-A");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(matcher.test(build), equalTo(true));
+        }
+
+        { // listed inside a folder
+            FreeStyleProject project = folder.createProject(FreeStyleProject.class, "job-B");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(matcher.test(build), equalTo(true));
+        }
+
+        { // listed name, but at a different location
+            FreeStyleProject project = folder.createProject(FreeStyleProject.class, "job-A");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(matcher.test(build), equalTo(false));
+        }
+    }
+
+    @Test
+    public void testRename() throws Exception {
+        ExactJobFullNamesRunMatcher matcher = new ExactJobFullNamesRunMatcher();
+        matcher.setNames(Collections.singletonList("folder/job"));
+        ExactJobFullNamesRunMatcher unowned = new ExactJobFullNamesRunMatcher();
+        unowned.setNames(Collections.singletonList("folder/job"));
+        NotRunMatcher not = new NotRunMatcher();
+        not.setMatcher(matcher);
+        Owner.matcher = not;
+
+        MockFolder folder = j.createFolder("folder");
+        FreeStyleProject project = folder.createProject(FreeStyleProject.class, "job");
+        FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+        assertThat(matcher.test(build), equalTo(true));
+
+        project.renameTo("renamed");
+        assertThat(matcher.getNames(), contains("folder/renamed"));
+        assertThat(matcher.test(build), equalTo(true));
+        assertThat(Owner.saves, equalTo(1));
+
+        folder.renameTo("other");
+        assertThat(matcher.getNames(), contains("other/renamed"));
+        assertThat(matcher.test(build), equalTo(true));
+        assertThat(Owner.saves, equalTo(2));
+
+        // only matchers passed the event by their owner are updated
+        assertThat(unowned.getNames(), contains("folder/job"));
+        assertThat(unowned.onLocationChanged("unrelated", "other/unrelated"), equalTo(false));
+    }
+
+    @TestExtension("testRename")
+    public static class Owner extends ItemListener {
+        static RunMatcher matcher;
+
+        static int saves;
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            if (matcher.onLocationChanged(oldFullName, newFullName)) {
+                saves++;
+            }
+        }
+    }
+
+    @Test
+    public void testCheckNames() throws Exception {
+        ExactJobFullNamesRunMatcher.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(ExactJobFullNamesRunMatcher.DescriptorImpl.class);
+        FreeStyleProject a = j.createFreeStyleProject("job-A");
+        FreeStyleProject b = j.createFreeStyleProject("job-B");
+
+        assertThat(descriptor.doCheckNames("job-A\njob-B").kind, equalTo(FormValidation.Kind.OK));
+        FormValidation result = descriptor.doCheckNames("job-A\nmissing\njob-B\nother");
+        assertThat(result.kind, equalTo(FormValidation.Kind.WARNING));
+        assertThat(result.getMessage(), containsString("missing, other"));
+
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("user")
+                .grant(Item.READ)
+                .onItems(a)
+                .to("user")
+                .grant(Item.DISCOVER)
+                .onItems(b)
+                .to("user"));
+        try (ACLContext ignored = ACL.as2(User.getById("user", true).impersonate2())) {
+            // discoverable but not readable, reported like a missing job rather than failing
+            result = descriptor.doCheckNames("job-A\njob-B");
+            assertThat(result.kind, equalTo(FormValidation.Kind.WARNING));
+            assertThat(result.getMessage(), containsString("job-B"));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.Result;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.FolderRunMatcher;
+import java.util.Arrays;
+import java.util.Collections;
+import jenkins.model.Jenkins;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.MockFolder;
+
+public class FolderRunMatcherTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testFolders() throws Exception {
+        FolderRunMatcher matcher = new FolderRunMatcher();
+        matcher.setFolders(Arrays.asList("org/teamA; org/teamB/", "other"));
+        assertThat(matcher.getFolders(), contains("org/teamA", "org/teamB", "other"));
+
+        MockFolder org = j.createFolder("org");
+        MockFolder teamA = org.createProject(MockFolder.class, "teamA");
+        MockFolder sub = teamA.createProject(MockFolder.class, "sub");
+        MockFolder teamC = org.createProject(MockFolder.class, "teamC");
+
+        { // directly inside a listed folder
+            FreeStyleProject project = teamA.createProject(FreeStyleProject.class, "job");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(matcher.test(build), equalTo(true));
+        }
+
+        { // inside a subfolder
+            FreeStyleProject project = sub.createProject(FreeStyleProject.class, "job");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(matcher.test(build), equalTo(true));
+        }
+
+        { // inside a sibling folder
+            FreeStyleProject project = teamC.createProject(FreeStyleProject.class, "job");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(matcher.test(build), equalTo(false));
+        }
+
+        { // inside the parent of a listed folder
+            FreeStyleProject project = org.createProject(FreeStyleProject.class, "job");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(matcher.test(build), equalTo(false));
+        }
+
+        { // job with the name of a listed folder
+            FreeStyleProject project = j.createFreeStyleProject("other");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(matcher.test(build), equalTo(false));
+        }
+    }
+
+    @Test
+    public void testRename() throws Exception {
+        FolderRunMatcher matcher = new FolderRunMatcher();
+        matcher.setFolders(Collections.singletonList("after"));
+
+        MockFolder folder = j.createFolder("before");
+        FreeStyleProject project = folder.createProject(FreeStyleProject.class, "job");
+        FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+        assertThat(matcher.test(build), equalTo(false));
+
+        folder.renameTo("after");
+        assertThat(matcher.test(build), equalTo(true));
+    }
+
+    @Test
+    public void testCheckFolders() throws Exception {
+        FolderRunMatcher.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(FolderRunMatcher.DescriptorImpl.class);
+        MockFolder folder = j.createFolder("folder");
+        MockFolder hidden = j.createFolder("folder-hidden");
+        j.createFreeStyleProject("job");
+
+        assertThat(descriptor.doCheckFolders("folder").kind, equalTo(FormValidation.Kind.OK));
+        assertThat(descriptor.doCheckFolders("folder;job").kind, equalTo(FormValidation.Kind.WARNING));
+        assertThat(descriptor.doAutoCompleteFolders("job;fo").getValues(), contains("folder", "folder-hidden"));
+
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("user")
+                .grant(Item.READ)
+                .onItems(folder)
+                .to("user")
+                .grant(Item.DISCOVER)
+                .onItems(hidden)
+                .to("user"));
+        try (ACLContext ignored = ACL.as2(User.getById("user", true).impersonate2())) {
+            // discoverable but not readable, reported like a missing folder rather than failing
+            assertThat(descriptor.doCheckFolders("folder").kind, equalTo(FormValidation.Kind.OK));
+            assertThat(descriptor.doCheckFolders("folder-hidden").kind, equalTo(FormValidation.Kind.WARNING));
+            assertThat(descriptor.doAutoCompleteFolders("fo").getValues(), contains("folder"));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.GlobJobFullNameRunMatcher;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+
+public class GlobJobFullNameRunMatcherTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private static GlobJobFullNameRunMatcher glob(String glob) {
+        GlobJobFullNameRunMatcher matcher = new GlobJobFullNameRunMatcher();
+        matcher.setGlob(glob);
+        return matcher;
+    }
+
+    @Test
+    public void testGlob() throws Exception {
+        MockFolder team = j.createFolder("team-a");
+        MockFolder sub = team.createProject(MockFolder.class, "sub");
+        FreeStyleBuild top = j.buildAndAssertSuccess(j.createFreeStyleProject("deploy-1"));
+        FreeStyleBuild inTeam = j.buildAndAssertSuccess(team.createProject(FreeStyleProject.class, "deploy-prod"));
+        FreeStyleBuild inSub = j.buildAndAssertSuccess(sub.createProject(FreeStyleProject.class, "deploy-2"));
+
+        GlobJobFullNameRunMatcher matcher = glob("team-*/deploy-*");
+        assertThat(matcher.test(top), equalTo(false));
+        assertThat(matcher.test(inTeam), equalTo(true));
+        assertThat(matcher.test(inSub), equalTo(false));
+
+        matcher = glob("team-a/**");
+        assertThat(matcher.test(top), equalTo(false));
+        assertThat(matcher.test(inTeam), equalTo(true));
+        assertThat(matcher.test(inSub), equalTo(true));
+
+        matcher = glob("**/deploy-?");
+        assertThat(matcher.test(top), equalTo(true));
+        assertThat(matcher.test(inTeam), equalTo(false));
+        assertThat(matcher.test(inSub), equalTo(true));
+
+        matcher = glob("team-a/*/deploy-*");
+        assertThat(matcher.test(inTeam), equalTo(false));
+        assertThat(matcher.test(inSub), equalTo(true));
+
+        assertThat(glob(" team-*/** "), equalTo(glob("team-*/**")));
+        assertThat(glob("team-*/**").equals(glob("team-*")), equalTo(false));
+    }
+
+    @Test
+    public void testCheckAndTestGlob() throws Exception {
+        GlobJobFullNameRunMatcher.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(GlobJobFullNameRunMatcher.DescriptorImpl.class);
+        assertThat(descriptor.doCheckGlob("team-*/**").kind, equalTo(FormValidation.Kind.OK));
+        assertThat(descriptor.doCheckGlob("team-*//job").kind, equalTo(FormValidation.Kind.ERROR));
+        assertThat(descriptor.doCheckGlob("team-*/").kind, equalTo(FormValidation.Kind.ERROR));
+
+        MockFolder folder = j.createFolder("folder");
+        folder.createProject(FreeStyleProject.class, "job-A");
+        j.createFreeStyleProject("job-B");
+
+        FormValidation result = descriptor.doTestGlob("folder/*", null);
+        assertThat(result.kind, equalTo(FormValidation.Kind.OK));
+        assertThat(result.renderHtml(), containsString("folder/job-A"));
+        assertThat(result.renderHtml(), not(containsString("job-B")));
+
+        result = descriptor.doTestGlob("other/**", null);
+        assertThat(result.kind, equalTo(FormValidation.Kind.WARNING));
+
+        result = descriptor.doTestGlob("a//b", null);
+        assertThat(result.kind, equalTo(FormValidation.Kind.ERROR));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import hudson.model.Descriptor;
+import hudson.util.XStream2;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.All;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.Multiple;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.Single;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.MultiRegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RunMatcher;
+import io.jenkins.plugins.environment_filter_utils.util.PatternCache;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.junit.Test;
+
+/**
+ * Loading matcher configuration must not need a running Jenkins, nor compile anything before it is evaluated.
+ */
+public class MatcherLoadingTest {
+    private static final Logger LOGGER = Logger.getLogger(MatcherLoadingTest.class.getName());
+
+    private static final int RULES = 3000;
+
+    private static final class TestDescriptor extends Descriptor<RunMatcher> {
+        TestDescriptor() {
+            super(RunMatcher.class);
+        }
+    }
+
+    @Test
+    public void testLoadWithoutJenkins() {
+        assertThat(Jenkins.getInstanceOrNull(), nullValue());
+        String descriptorClassName = TestDescriptor.class.getName();
+
+        List<Object> rules = new ArrayList<>();
+        for (int i = 0; i < RULES; i++) {
+            RegexJobFullNameRunMatcher regex = new RegexJobFullNameRunMatcher();
+            regex.setRegex("team-" + i + "/.*");
+            MultiRegexJobFullNameRunMatcher multi = new MultiRegexJobFullNameRunMatcher();
+            multi.setRegexes(Arrays.asList("org-" + i + "/.*", "other-" + i + "/.*"));
+            rules.add(Arrays.asList(
+                    regex,
+                    multi,
+                    new All(),
+                    new Single(descriptorClassName),
+                    new Multiple(Arrays.asList("org.example.Missing" + i + "$DescriptorImpl", descriptorClassName))));
+        }
+        XStream2 xstream = new XStream2();
+        String xml = xstream.toXML(rules);
+
+        long misses = PatternCache.getMisses();
+        long start = System.nanoTime();
+        List<?> loaded = (List<?>) xstream.fromXML(xml);
+        long loadNanos = System.nanoTime() - start;
+        assertThat(loaded.size(), equalTo(RULES));
+        assertThat("nothing compiled while loading", PatternCache.getMisses(), equalTo(misses));
+
+        // resolved and compiled on first evaluation instead
+        Descriptor<?> descriptor = new TestDescriptor();
+        start = System.nanoTime();
+        for (Object rule : loaded) {
+            List<?> matchers = (List<?>) rule;
+            assertThat(((Multiple) matchers.get(4)).test(descriptor), equalTo(true));
+            assertThat(((Single) matchers.get(3)).test(descriptor), equalTo(true));
+        }
+        long evaluateNanos = System.nanoTime() - start;
+        LOGGER.info(() -> String.format(
+                "Loaded %d rules in %d ms, first evaluation of descriptor matchers took %d ms",
+                RULES, loadNanos / 1_000_000, evaluateNanos / 1_000_000));
+        assertThat(Jenkins.getInstanceOrNull(), nullValue());
+    }
+}
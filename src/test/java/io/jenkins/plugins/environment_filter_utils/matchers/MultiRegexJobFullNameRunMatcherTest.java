@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Result;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.MultiRegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+
+public class MultiRegexJobFullNameRunMatcherTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testAnyMatches() throws Exception {
+        MultiRegexJobFullNameRunMatcher matcher = new MultiRegexJobFullNameRunMatcher();
+        matcher.setRegexes(Arrays.asList("folderA/.*", "job-[A-Z]", ".*-sandbox"));
+
+        MockFolder folderA = j.createFolder("folderA");
+
+        { // literal prefix
+            FreeStyleProject project = folderA.createProject(FreeStyleProject.class, "job");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(matcher.test(build), equalTo(true));
+            assertThat(matcher.getMatchingRegexes(build), equalTo(bits(0)));
+        }
+
+        { // no literal prefix, and matching several expressions
+            FreeStyleProject project = folderA.createProject(FreeStyleProject.class, "job-sandbox");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(matcher.test(build), equalTo(true));
+            assertThat(matcher.getMatchingRegexes(build), equalTo(bits(0, 2)));
+        }
+
+        { // entire name has to match
+            FreeStyleProject project = j.createFreeStyleProject("job-AB");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(matcher.test(build), equalTo(false));
+            assertThat(matcher.getMatchingRegexes(build), equalTo(bits()));
+        }
+    }
+
+    @Test
+    public void testFormInput() throws Exception {
+        MultiRegexJobFullNameRunMatcher matcher = new MultiRegexJobFullNameRunMatcher();
+        matcher.setRegexes(Collections.singletonList("job-[A-Z]\n\nother-.*\r\n"));
+
+        assertThat(matcher.getRegexes(), equalTo(Arrays.asList("job-[A-Z]", "other-.*")));
+
+        FreeStyleProject project = j.createFreeStyleProject("other-job");
+        FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+        assertThat(matcher.test(build), equalTo(true));
+
+        // spaces are part of the expression
+        matcher.setRegexes(Collections.singletonList("other-.* "));
+        assertThat(matcher.getRegexes(), equalTo(Collections.singletonList("other-.* ")));
+        assertThat(matcher.test(build), equalTo(false));
+    }
+
+    @Test
+    public void testOf() throws Exception {
+        RegexJobFullNameRunMatcher first = new RegexJobFullNameRunMatcher();
+        first.setRegex("job-[A-Z]");
+        RegexJobFullNameRunMatcher second = new RegexJobFullNameRunMatcher();
+        second.setRegex("[^/]+-sandbox");
+
+        MultiRegexJobFullNameRunMatcher matcher = MultiRegexJobFullNameRunMatcher.of(Arrays.asList(first, second));
+
+        FreeStyleProject project = j.createFreeStyleProject("test-sandbox");
+        FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+        assertThat(matcher.test(build), equalTo(first.test(build) || second.test(build)));
+        assertThat(matcher.test(build), equalTo(true));
+
+        second.setLinearTime(true);
+        assertThrows(
+                IllegalArgumentException.class, () -> MultiRegexJobFullNameRunMatcher.of(Arrays.asList(first, second)));
+    }
+
+    private static BitSet bits(int... indices) {
+        BitSet result = new BitSet();
+        for (int i : indices) {
+            result.set(i);
+        }
+        return result;
+    }
+}
@@ -25,14 +25,27 @@ package io.jenkins.plugins.environment_filter_utils.matchers;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThrows;
 
 import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
+import hudson.model.Item;
 import hudson.model.Result;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.MatchBudgetExceededException;
 import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.util.PatternCache;
+import jenkins.model.Jenkins;
 import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
 import org.jvnet.hudson.test.MockFolder;
 
 public class RegexJobFullNameRunMatcherTest {
@@ -113,4 +126,129 @@ public class RegexJobFullNameRunMatcherTest {
             assertThat(matcherDirectJob.test(build), equalTo(true));
         }
     }
+
+    @Test
+    public void testSharedPattern() throws Exception {
+        long misses = PatternCache.getMisses();
+        long hits = PatternCache.getHits();
+
+        RegexJobFullNameRunMatcher first = new RegexJobFullNameRunMatcher();
+        first.setRegex("shared-[0-9]+");
+        RegexJobFullNameRunMatcher second = new RegexJobFullNameRunMatcher();
+        second.setRegex("shared-[0-9]+");
+
+        assertThat(PatternCache.getMisses(), equalTo(misses + 1));
+        assertThat(PatternCache.getHits(), greaterThan(hits));
+
+        FreeStyleProject project = j.createFreeStyleProject("shared-42");
+        FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+        assertThat(first.test(build), equalTo(true));
+        assertThat(second.test(build), equalTo(true));
+        // evaluation does not compile again
+        assertThat(PatternCache.getMisses(), equalTo(misses + 1));
+    }
+
+    @Test
+    public void testTestRegex() throws Exception {
+        RegexJobFullNameRunMatcher.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(RegexJobFullNameRunMatcher.DescriptorImpl.class);
+
+        MockFolder folder = j.createFolder("folder");
+        FreeStyleProject project = folder.createProject(FreeStyleProject.class, "job-before");
+        j.createFreeStyleProject("other");
+
+        FormValidation result = descriptor.doTestRegex("folder/.*", false, null);
+        assertThat(result.kind, equalTo(FormValidation.Kind.OK));
+        assertThat(result.renderHtml(), containsString("folder/job-before"));
+        assertThat(result.renderHtml(), not(containsString("other")));
+
+        project.renameTo("job-after");
+        result = descriptor.doTestRegex("folder/.*", false, null);
+        assertThat(result.renderHtml(), containsString("folder/job-after"));
+        assertThat(result.renderHtml(), not(containsString("job-before")));
+
+        folder.renameTo("renamed");
+        result = descriptor.doTestRegex("folder/.*", false, null);
+        assertThat(result.kind, equalTo(FormValidation.Kind.WARNING));
+        result = descriptor.doTestRegex("renamed/.*", false, null);
+        assertThat(result.renderHtml(), containsString("renamed/job-after"));
+    }
+
+    @Test
+    public void testTestRegexPermissions() throws Exception {
+        RegexJobFullNameRunMatcher.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(RegexJobFullNameRunMatcher.DescriptorImpl.class);
+        FreeStyleProject context = j.createFreeStyleProject("job-context");
+        FreeStyleProject readable = j.createFreeStyleProject("job-readable");
+        FreeStyleProject hidden = j.createFreeStyleProject("job-hidden");
+
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("user")
+                .grant(Item.READ, Item.CONFIGURE)
+                .onItems(context, readable)
+                .to("user")
+                .grant(Item.DISCOVER)
+                .onItems(hidden)
+                .to("user"));
+        try (ACLContext ignored = ACL.as2(User.getById("user", true).impersonate2())) {
+            // items the user can discover but not read are skipped
+            FormValidation result = descriptor.doTestRegex("job-.*", false, context);
+            assertThat(result.kind, equalTo(FormValidation.Kind.OK));
+            assertThat(result.renderHtml(), containsString("job-readable"));
+            assertThat(result.renderHtml(), not(containsString("job-hidden")));
+        }
+    }
+
+    @Test
+    public void testLinearTime() throws Exception {
+        RegexJobFullNameRunMatcher backtracking = new RegexJobFullNameRunMatcher();
+        backtracking.setRegex("(a+)+b");
+        RegexJobFullNameRunMatcher linear = new RegexJobFullNameRunMatcher();
+        linear.setRegex("(a+)+b");
+        linear.setLinearTime(true);
+
+        { // would take practically forever without a limit, neither a match nor a mismatch
+            FreeStyleProject project = j.createFreeStyleProject("a".repeat(40) + "c");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThrows(MatchBudgetExceededException.class, () -> backtracking.test(build));
+            assertThat(linear.test(build), equalTo(false));
+        }
+
+        { // regular match
+            FreeStyleProject project = j.createFreeStyleProject("aaab");
+            FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+
+            assertThat(backtracking.test(build), equalTo(true));
+            assertThat(linear.test(build), equalTo(true));
+        }
+
+        RegexJobFullNameRunMatcher.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(RegexJobFullNameRunMatcher.DescriptorImpl.class);
+        { // the preview gives up instead of hanging, or evaluates in linear time
+            FormValidation result = descriptor.doTestRegex("(a+)+b", false, null);
+            assertThat(result.kind, equalTo(FormValidation.Kind.WARNING));
+            assertThat(result.getMessage(), containsString("took too long"));
+
+            result = descriptor.doTestRegex("(a+)+b", true, null);
+            assertThat(result.kind, equalTo(FormValidation.Kind.OK));
+            assertThat(result.renderHtml(), containsString("aaab"));
+        }
+    }
+
+    @Test
+    public void testCheckRegex() {
+        RegexJobFullNameRunMatcher.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(RegexJobFullNameRunMatcher.DescriptorImpl.class);
+
+        assertThat(descriptor.doCheckRegex("job-[A-Z]+", false).kind, equalTo(FormValidation.Kind.OK));
+        assertThat(descriptor.doCheckRegex("job-[A-Z", false).kind, equalTo(FormValidation.Kind.ERROR));
+        assertThat(descriptor.doCheckRegex("(a+)+b", false).kind, equalTo(FormValidation.Kind.WARNING));
+        assertThat(descriptor.doCheckRegex("(a+)+b", true).kind, equalTo(FormValidation.Kind.OK));
+        assertThat(descriptor.doCheckRegex("(a)\\1", true).kind, equalTo(FormValidation.Kind.ERROR));
+    }
 }
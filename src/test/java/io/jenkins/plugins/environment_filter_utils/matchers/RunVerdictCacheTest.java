@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.ExactJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RunMatcher;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+
+public class RunVerdictCacheTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testCachedWhileBuilding() throws Exception {
+        AtomicInteger evaluations = new AtomicInteger();
+        RunMatcher counting = run -> evaluations.incrementAndGet() > 0;
+        ExactJobFullNameRunMatcher exact = new ExactJobFullNameRunMatcher();
+        exact.setName("job");
+        List<RunMatcher> matchers = Arrays.asList(exact, counting);
+        BitSet expected = new BitSet();
+        expected.set(0, 2);
+
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        project.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) {
+                // like a Pipeline evaluating the matchers for each of its steps
+                for (int i = 0; i < 1000; i++) {
+                    assertThat(counting.testCached(build), equalTo(true));
+                    assertThat(exact.testCached(build), equalTo(true));
+                    BitSet result = RunMatcher.evaluateAll(build, matchers);
+                    assertThat(result, equalTo(expected));
+                    // modifying the result does not affect later calls
+                    result.clear();
+                }
+                return true;
+            }
+        });
+        FreeStyleBuild build = j.buildAndAssertSuccess(project);
+        // once for testCached, once for evaluateAll
+        assertThat(evaluations.get(), equalTo(2));
+
+        // not remembered once the build is done
+        assertThat(counting.testCached(build), equalTo(true));
+        assertThat(counting.testCached(build), equalTo(true));
+        assertThat(evaluations.get(), equalTo(4));
+    }
+
+    @Test
+    public void testReconfiguredWhileBuilding() throws Exception {
+        ExactJobFullNameRunMatcher exact = new ExactJobFullNameRunMatcher();
+        exact.setName("job");
+        List<RunMatcher> matchers = Arrays.asList(exact);
+
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        project.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) {
+                assertThat(exact.testCached(build), equalTo(true));
+                assertThat(RunMatcher.evaluateAll(build, matchers).get(0), equalTo(true));
+                // the configuration is saved while the build is running
+                exact.setName("other");
+                assertThat(exact.testCached(build), equalTo(false));
+                assertThat(RunMatcher.evaluateAll(build, matchers).get(0), equalTo(false));
+                exact.setName("job");
+                assertThat(exact.testCached(build), equalTo(true));
+                assertThat(RunMatcher.evaluateAll(build, matchers).get(0), equalTo(true));
+                return true;
+            }
+        });
+        j.buildAndAssertSuccess(project);
+    }
+}
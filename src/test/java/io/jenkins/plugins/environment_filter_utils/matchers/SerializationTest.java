@@ -0,0 +1,137 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.matchers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+
+import hudson.model.Descriptor;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Items;
+import hudson.model.Result;
+import hudson.tasks.BatchFile;
+import hudson.tasks.Shell;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.All;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.Multiple;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.Single;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.MultiRegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class SerializationTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T object) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+
+    @Test
+    public void testSharedClassNames() throws Exception {
+        Descriptor<?> shell = j.jenkins.getDescriptorByType(Shell.DescriptorImpl.class);
+        Descriptor<?> batch = j.jenkins.getDescriptorByType(BatchFile.DescriptorImpl.class);
+
+        List<Multiple> matchers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            // distinct string instances, like those read from separate configuration files
+            matchers.add(new Multiple(Collections.singletonList(new String(shell.getClass().getName()))));
+        }
+
+        List<Multiple> loaded = roundTrip(matchers);
+        assertThat(
+                loaded.get(0).getDescriptorClassNames().get(0),
+                sameInstance(loaded.get(99).getDescriptorClassNames().get(0)));
+        assertThat(loaded.get(0).test(shell), equalTo(true));
+        assertThat(loaded.get(0).test(batch), equalTo(false));
+
+        Multiple fromXml = (Multiple) Items.XSTREAM2.fromXML(Items.XSTREAM2.toXML(matchers.get(0)));
+        assertThat(fromXml.getDescriptorClassNames().get(0), sameInstance(shell.getClass().getName()));
+    }
+
+    @Test
+    public void testCompiledStateNotSerialized() throws Exception {
+        RegexJobFullNameRunMatcher regex = new RegexJobFullNameRunMatcher();
+        regex.setRegex("job-[A-Z]");
+        MultiRegexJobFullNameRunMatcher multi = new MultiRegexJobFullNameRunMatcher();
+        multi.setRegexes(Arrays.asList("job-[A-Z]", "other"));
+
+        String xml = Items.XSTREAM2.toXML(Arrays.asList(regex, multi));
+        assertThat(xml, not(containsString("pattern")));
+        assertThat(xml, not(containsString("index")));
+        assertThat(xml, not(containsString("Collections")));
+
+        FreeStyleProject project = j.createFreeStyleProject("job-A");
+        FreeStyleBuild build = j.assertBuildStatus(Result.SUCCESS, project.scheduleBuild2(0));
+        assertThat(roundTrip(regex).test(build), equalTo(true));
+        assertThat(roundTrip(multi).test(build), equalTo(true));
+    }
+
+    @Test
+    public void testEqualMatchersShared() throws Exception {
+        Descriptor<?> shell = j.jenkins.getDescriptorByType(Shell.DescriptorImpl.class);
+        String xml = Items.XSTREAM2.toXML(new Single(shell.getClass().getName()));
+        Object first = Items.XSTREAM2.fromXML(xml);
+        Object second = Items.XSTREAM2.fromXML(xml);
+        assertThat(first, sameInstance(second));
+        assertThat(Items.XSTREAM2.fromXML(Items.XSTREAM2.toXML(new All())), sameInstance(roundTrip(new All())));
+
+        RegexJobFullNameRunMatcher regex = new RegexJobFullNameRunMatcher();
+        regex.setRegex("job-.*");
+        RegexJobFullNameRunMatcher same = new RegexJobFullNameRunMatcher();
+        same.setRegex("job-.*");
+        RegexJobFullNameRunMatcher linear = new RegexJobFullNameRunMatcher();
+        linear.setRegex("job-.*");
+        linear.setLinearTime(true);
+        assertThat(regex, equalTo(same));
+        assertThat(regex.hashCode(), equalTo(same.hashCode()));
+        assertThat(regex, not(equalTo(linear)));
+
+        MultiRegexJobFullNameRunMatcher multi = new MultiRegexJobFullNameRunMatcher();
+        multi.setRegexes(Collections.singletonList("job-.*"));
+        assertThat(roundTrip(multi), equalTo(multi));
+        assertThat(multi, not(equalTo((Object) regex)));
+    }
+}
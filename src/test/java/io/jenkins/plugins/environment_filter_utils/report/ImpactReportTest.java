@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.report;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThrows;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Job;
+import hudson.model.Run;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.All;
+import io.jenkins.plugins.environment_filter_utils.matchers.descriptor.Single;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RunMatcher;
+import io.jenkins.plugins.environment_filter_utils.util.BuilderUtil;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.Page;
+import org.htmlunit.WebRequest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.MockFolder;
+
+public class ImpactReportTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testReport() throws Exception {
+        MockFolder folder = j.createFolder("folder");
+        folder.createProject(FreeStyleProject.class, "job-A");
+        j.createFreeStyleProject("job-B");
+        j.createFreeStyleProject("other");
+
+        RegexJobFullNameRunMatcher matcher = new RegexJobFullNameRunMatcher();
+        matcher.setRegex(".*job-.*");
+        ImpactReport report = ImpactReport.start(matcher, new All());
+        assertThat(report.await(1, TimeUnit.MINUTES), equalTo(true));
+
+        assertThat(report.getState(), equalTo(ImpactReport.State.COMPLETED));
+        assertThat(report.getJobs(), containsInAnyOrder("folder/job-A", "job-B"));
+        assertThat(report.getBuilders(), equalTo(BuilderUtil.allDescriptors()));
+
+        report = ImpactReport.start(matcher, new Single("org.example.Missing"));
+        assertThat(report.await(1, TimeUnit.MINUTES), equalTo(true));
+        assertThat(report.getBuilders(), empty());
+    }
+
+    @Test
+    public void testBounded() throws Exception {
+        j.createFreeStyleProject("job");
+        CountDownLatch release = new CountDownLatch(1);
+        RunMatcher blocking = new RunMatcher() {
+            @Override
+            public boolean test(Run<?, ?> run) {
+                return false;
+            }
+
+            @Override
+            public boolean testJob(Job<?, ?> job) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+
+        List<ImpactReport> reports = new ArrayList<>();
+        try {
+            for (int i = 0; i < ImpactReport.MAX_RUNNING + ImpactReport.MAX_QUEUED; i++) {
+                reports.add(ImpactReport.start(blocking, new All()));
+            }
+            assertThrows(RejectedExecutionException.class, () -> ImpactReport.start(blocking, new All()));
+
+            // cancelling a waiting report makes room for another one
+            ImpactReport waiting = reports.get(reports.size() - 1);
+            waiting.cancel();
+            assertThat(waiting.await(1, TimeUnit.MINUTES), equalTo(true));
+            assertThat(waiting.getState(), equalTo(ImpactReport.State.CANCELLED));
+            reports.add(ImpactReport.start(blocking, new All()));
+        } finally {
+            release.countDown();
+        }
+        for (ImpactReport report : reports) {
+            assertThat(report.await(1, TimeUnit.MINUTES), equalTo(true));
+        }
+        assertThat(reports.get(0).getState(), equalTo(ImpactReport.State.COMPLETED));
+        assertThat(reports.get(0).getJobs(), containsInAnyOrder("job"));
+    }
+
+    @Test
+    public void testHttp() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.ADMINISTER)
+                .everywhere()
+                .to("admin")
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("user"));
+        j.createFreeStyleProject("job-A");
+        j.createFreeStyleProject("job-B");
+        j.createFreeStyleProject("other");
+
+        String body = "{\"runMatcher\": {\"$class\": \"" + RegexJobFullNameRunMatcher.class.getName()
+                + "\", \"regex\": \"job-.*\"}}";
+
+        try (JenkinsRule.WebClient wc = j.createWebClient().withBasicApiToken("user")) {
+            wc.setThrowExceptionOnFailingStatusCode(false);
+            Page page = wc.getPage(start(body));
+            assertThat(page.getWebResponse().getStatusCode(), equalTo(403));
+        }
+
+        try (JenkinsRule.WebClient wc = j.createWebClient().withBasicApiToken("admin")) {
+            Page page = wc.getPage(start(body));
+            assertThat(page.getWebResponse().getStatusCode(), equalTo(201));
+            String id = JSONObject.fromObject(page.getWebResponse().getContentAsString()).getString("id");
+            String url = "environment-filter-impact/report/" + id + "/";
+
+            JSONObject status;
+            do {
+                Thread.sleep(100);
+                status = JSONObject.fromObject(
+                        wc.goTo(url, "application/json").getWebResponse().getContentAsString());
+            } while (status.getString("state").equals("RUNNING"));
+            assertThat(status.getString("state"), equalTo("COMPLETED"));
+            assertThat(status.getInt("matched"), equalTo(2));
+            assertThat(status.getJSONArray("builders").size(), equalTo(BuilderUtil.allDescriptors().size()));
+
+            JSONObject jobs = JSONObject.fromObject(wc.goTo(url + "jobs?offset=1&limit=1", "application/json")
+                    .getWebResponse()
+                    .getContentAsString());
+            assertThat(jobs.getInt("total"), equalTo(2));
+            assertThat(jobs.getJSONArray("jobs").size(), equalTo(1));
+        }
+    }
+
+    private WebRequest start(String body) throws Exception {
+        WebRequest request = new WebRequest(new URL(j.getURL(), "environment-filter-impact/start"), HttpMethod.POST);
+        request.setAdditionalHeader("Content-Type", "application/json");
+        request.setRequestBody(body);
+        return request;
+    }
+}
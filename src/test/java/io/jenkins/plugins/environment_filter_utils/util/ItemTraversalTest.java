@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.User;
+import hudson.security.ACL;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import jenkins.model.Jenkins;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.MockFolder;
+import org.springframework.security.core.Authentication;
+
+public class ItemTraversalTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testForEach() throws Exception {
+        MockFolder visible = j.createFolder("visible");
+        visible.createProject(FreeStyleProject.class, "job");
+        MockFolder nested = visible.createProject(MockFolder.class, "nested");
+        nested.createProject(FreeStyleProject.class, "job");
+        MockFolder hidden = j.createFolder("hidden");
+        hidden.createProject(FreeStyleProject.class, "job");
+        FreeStyleProject top = j.createFreeStyleProject("top");
+
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("user")
+                .grant(Item.READ)
+                .onItems(visible, top)
+                .to("user"));
+
+        assertThat(
+                visit(j.jenkins, ACL.SYSTEM2),
+                containsInAnyOrder(
+                        "visible",
+                        "visible/job",
+                        "visible/nested",
+                        "visible/nested/job",
+                        "hidden",
+                        "hidden/job",
+                        "top"));
+        assertThat(
+                visit(j.jenkins, User.getById("user", true).impersonate2()),
+                containsInAnyOrder("visible", "visible/job", "visible/nested", "visible/nested/job", "top"));
+        assertThat(
+                visit(visible, ACL.SYSTEM2), containsInAnyOrder("visible/job", "visible/nested", "visible/nested/job"));
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            j.jenkins.createProject(FreeStyleProject.class, "job-" + i);
+        }
+        AtomicInteger visited = new AtomicInteger();
+        boolean complete = ItemTraversal.forEach(j.jenkins, ACL.SYSTEM2, item -> visited.incrementAndGet() < 10);
+        assertThat(complete, equalTo(false));
+        // items already being visited by other threads may still be passed to the visitor
+        assertThat(visited.get() < 1000, equalTo(true));
+
+        assertThat(ItemTraversal.forEach(j.jenkins, ACL.SYSTEM2, item -> true), equalTo(true));
+    }
+
+    private static List<String> visit(ItemGroup<?> group, Authentication authentication) {
+        Set<String> names = ConcurrentHashMap.newKeySet();
+        ItemTraversal.forEach(group, authentication, item -> names.add(item.getFullName()));
+        return List.copyOf(names);
+    }
+}
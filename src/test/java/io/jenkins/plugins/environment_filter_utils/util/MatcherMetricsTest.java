@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2020, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.jenkins.plugins.environment_filter_utils.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThrows;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.MatchBudgetExceededException;
+import io.jenkins.plugins.environment_filter_utils.matchers.run.RegexJobFullNameRunMatcher;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class MatcherMetricsTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Before
+    public void enable() {
+        MatcherMetrics.reset();
+        MatcherMetrics.setEnabled(true);
+    }
+
+    @After
+    public void disable() {
+        MatcherMetrics.setEnabled(false);
+        MatcherMetrics.reset();
+    }
+
+    @Test
+    public void testRecord() throws Exception {
+        RegexJobFullNameRunMatcher matcher = new RegexJobFullNameRunMatcher();
+        matcher.setRegex("(a+)+b");
+        FreeStyleProject matching = j.createFreeStyleProject("aaab");
+        FreeStyleBuild matchingBuild = j.buildAndAssertSuccess(matching);
+        FreeStyleProject backtracking = j.createFreeStyleProject("a".repeat(40) + "c");
+        FreeStyleBuild backtrackingBuild = j.buildAndAssertSuccess(backtracking);
+
+        assertThat(matcher.test(matchingBuild), equalTo(true));
+        // counted even though it is neither a match nor a mismatch
+        assertThrows(MatchBudgetExceededException.class, () -> matcher.test(backtrackingBuild));
+
+        List<MatcherMetrics.Statistics> statistics = MatcherMetrics.getStatistics();
+        assertThat(statistics, hasSize(1));
+        MatcherMetrics.Statistics s = statistics.get(0);
+        assertThat(s.getInvocations(), equalTo(2L));
+        assertThat(s.getMatches(), equalTo(1L));
+        assertThat(s.getFailures(), equalTo(1L));
+        assertThat(s.getDescription(), containsString("(a+)+b"));
+
+        // describes the current configuration
+        matcher.setRegex("other-.*");
+        assertThat(s.getDescription(), containsString("other-.*"));
+    }
+}